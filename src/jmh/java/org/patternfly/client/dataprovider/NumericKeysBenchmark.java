@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Compares sorting and filtering numeric fields using boxed comparators and predicates with the primitive sort keys
+ * and numeric fields. Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args="NumericKeysBenchmark"} and add
+ * {@code -prof gc} to the arguments to see the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericKeysBenchmark {
+
+    @Param({"10000", "100000"})
+    int size;
+
+    private DataProvider<Item> dataProvider;
+    private SortInfo<Item> boxedSort;
+    private SortInfo<Item> primitiveSort;
+    private List<Item> items;
+    private Predicate<Item> boxedFilter;
+    private Predicate<Item> primitiveFilter;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item("item-" + i, random.nextInt(size)));
+        }
+        // page size = all items: the sort is never limited to the first page
+        dataProvider = new DataProvider<>(Item::getId, size);
+        dataProvider.update(items);
+
+        boxedSort = new SortInfo<>("size", comparing(Item::getSize), true);
+        primitiveSort = new SortInfo<>("size", SortKeys.byInt(Item::getSize), true);
+
+        Filter filter = Filter.parse("size=ge=" + size / 4 + ";size=lt=" + size / 2);
+        boxedFilter = new Fields<Item>().add("size", Item::getSize).predicate(filter);
+        primitiveFilter = new Fields<Item>().addInt("size", Item::getSize).predicate(filter);
+    }
+
+    /** Sorts with a comparator which boxes the keys on every comparison. */
+    @Benchmark
+    public DataProvider<Item> sortBoxed() {
+        dataProvider.sort(boxedSort);
+        return dataProvider;
+    }
+
+    /**
+     * Sorts with the primitive sort keys. The keys are cached across sorts as long as the sort keys are the same, so
+     * this measures sorting alone.
+     */
+    @Benchmark
+    public DataProvider<Item> sortPrimitive() {
+        dataProvider.sort(primitiveSort);
+        return dataProvider;
+    }
+
+    /** Sorts with new primitive sort keys, so that all keys are extracted again. */
+    @Benchmark
+    public DataProvider<Item> sortPrimitiveExtract() {
+        dataProvider.sort(new SortInfo<>("size", SortKeys.byInt(Item::getSize), true));
+        return dataProvider;
+    }
+
+    @Benchmark
+    public int filterBoxed() {
+        return count(boxedFilter);
+    }
+
+    @Benchmark
+    public int filterPrimitive() {
+        return count(primitiveFilter);
+    }
+
+    private int count(Predicate<Item> predicate) {
+        int count = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (predicate.test(items.get(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static class Item {
+
+        private final String id;
+        private final int size;
+
+        Item(String id, int size) {
+            this.id = id;
+            this.size = size;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.jboss.gwt.elemento.core.By;
 import org.jboss.gwt.elemento.core.builder.HtmlContent;
 import org.patternfly.client.dataprovider.DataProvider;
 import org.patternfly.client.dataprovider.Display;
+import org.patternfly.client.dataprovider.DisplayChanges;
+import org.patternfly.client.dataprovider.ItemProvider;
 import org.patternfly.client.dataprovider.PageInfo;
 import org.patternfly.client.dataprovider.SelectionInfo;
 import org.patternfly.client.dataprovider.SortInfo;
@@ -49,17 +51,19 @@ public class CardView<T> extends BaseComponent<HTMLDivElement, CardView<T>>
             .desc(By.classname(component(card, actions)))
             .desc(By.element("input").and(By.attribute("type", "checkbox")));
 
-    private final DataProvider<T> dataProvider;
+    private final ItemProvider<T> dataProvider;
     private final Display<T> display;
     private final ItemSelect itemSelect;
+    private final ItemElements itemElements;
     private boolean compact;
     private boolean hoverable;
 
-    CardView(DataProvider<T> dataProvider, Display<T> display) {
+    CardView(ItemProvider<T> dataProvider, Display<T> display) {
         super(div().css(layout(gallery), modifier(gutter)).element(), "CardView");
         this.dataProvider = dataProvider;
         this.display = display;
         this.itemSelect = new ItemSelect(element);
+        this.itemElements = new ItemElements();
     }
 
     @Override
@@ -73,39 +77,28 @@ public class CardView<T> extends BaseComponent<HTMLDivElement, CardView<T>>
     public void showItems(Iterable<T> items, PageInfo pageInfo) {
         itemSelect.removeSelectHandler();
         removeChildrenFrom(element);
+        itemElements.clear();
 
         for (T item : items) {
-            String id = dataProvider.getId(item);
-            Card card = card().data(cardViewItem, id);
-            if (compact) {
-                card.compact();
-            }
-            if (hoverable) {
-                card.hoverable();
-            }
-            display.render(card, dataProvider, item);
-            add(card);
+            itemElements.add(element, renderItem(item));
         }
+        bindSelectHandler();
+    }
 
-        itemSelect.bindSelectHandler(SELECT_ITEM_SELECTOR,
-                checkbox -> {
-                    HTMLElement itemElement = closest(checkbox, By.data(cardViewItem));
-                    if (itemElement != null) {
-                        return itemElement.dataset.get(cardViewItem);
-                    }
-                    return null;
-                },
-                (id, selected) -> {
-                    T item = dataProvider.getItem(id);
-                    if (item != null) {
-                        dataProvider.select(item, selected);
-                    }
-                });
+    @Override
+    public void updateItems(DisplayChanges<T> changes) {
+        itemSelect.removeSelectHandler();
+        itemElements.apply(element, changes, this::renderItem);
+        bindSelectHandler();
     }
 
     @Override
     public void updateSelection(SelectionInfo<T> selectionInfo) {
-        for (T item : dataProvider.getVisibleItems()) {
+        // repaint only the items which have been (de)selected if possible
+        Iterable<T> items = selectionInfo.isAllChanged()
+                ? dataProvider.getVisibleItems()
+                : selectionInfo.getChangedItems();
+        for (T item : items) {
             String id = dataProvider.getId(item);
             By selector = By.data(cardViewItem, id).desc(SELECT_ITEM_SELECTOR);
             itemSelect.updateSelection(selector, selectionInfo.isSelected(item));
@@ -129,10 +122,42 @@ public class CardView<T> extends BaseComponent<HTMLDivElement, CardView<T>>
         return this;
     }
 
+    // ------------------------------------------------------ internals
+
+    private HTMLElement renderItem(T item) {
+        String id = dataProvider.getId(item);
+        Card card = card().data(cardViewItem, id);
+        if (compact) {
+            card.compact();
+        }
+        if (hoverable) {
+            card.hoverable();
+        }
+        display.render(card, dataProvider, item);
+        return card.element();
+    }
+
+    private void bindSelectHandler() {
+        itemSelect.bindSelectHandler(SELECT_ITEM_SELECTOR,
+                checkbox -> {
+                    HTMLElement itemElement = closest(checkbox, By.data(cardViewItem));
+                    if (itemElement != null) {
+                        return itemElement.dataset.get(cardViewItem);
+                    }
+                    return null;
+                },
+                (id, selected) -> {
+                    T item = dataProvider.getItem(id);
+                    if (item != null) {
+                        dataProvider.select(item, selected);
+                    }
+                });
+    }
+
     // ------------------------------------------------------ inner classes
 
     public interface Display<T> {
 
-        void render(Card card, DataProvider<T> dataProvider, T item);
+        void render(Card card, ItemProvider<T> dataProvider, T item);
     }
 }
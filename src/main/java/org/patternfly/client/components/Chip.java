@@ -48,7 +48,7 @@ public class Chip extends BaseComponent<HTMLElement, Chip>
 
     // ------------------------------------------------------ chip instance
 
-    private final int count;
+    private int count;
     private final boolean overflow;
     private final boolean readOnly;
     private Callback callback;
@@ -132,6 +132,20 @@ public class Chip extends BaseComponent<HTMLElement, Chip>
         return this;
     }
 
+    /** Shows or updates the count, e.g. a facet count from {@link org.patternfly.client.dataprovider.Display}. */
+    public Chip count(int count) {
+        this.count = count;
+        if (badge == null) {
+            if (!overflow) {
+                badge = Badge.read(count);
+                text.appendChild(badge.element());
+            }
+        } else {
+            badge.count(count);
+        }
+        return this;
+    }
+
     public Badge badge() {
         return badge;
     }
@@ -1,6 +1,6 @@
 package org.patternfly.client.components;
 
-import org.patternfly.client.dataprovider.DataProvider;
+import org.patternfly.client.dataprovider.ItemProvider;
 import org.patternfly.client.resources.CSS.Size;
 import org.patternfly.client.resources.Theme;
 
@@ -21,7 +21,7 @@ public final class Components {
         return new Card();
     }
 
-    public static <T> CardView<T> cardView(DataProvider<T> dataProvider, CardView.Display<T> display) {
+    public static <T> CardView<T> cardView(ItemProvider<T> dataProvider, CardView.Display<T> display) {
         return new CardView<>(dataProvider, display);
     }
 
@@ -45,15 +45,15 @@ public final class Components {
         return new ContextSelector<>(text);
     }
 
-    public static <T> DataList<T> dataList(DataProvider<T> dataProvider, DataList.Display<T> display) {
+    public static <T> DataList<T> dataList(ItemProvider<T> dataProvider, DataList.Display<T> display) {
         return new DataList<>(dataProvider, display);
     }
 
-    public static <T> DataTable<T> dataTable(DataProvider<T> dataProvider) {
+    public static <T> DataTable<T> dataTable(ItemProvider<T> dataProvider) {
         return new DataTable<>(dataProvider, null);
     }
 
-    public static <T> DataTable<T> dataTable(DataProvider<T> dataProvider, String caption) {
+    public static <T> DataTable<T> dataTable(ItemProvider<T> dataProvider, String caption) {
         return new DataTable<>(dataProvider, caption);
     }
 
@@ -113,7 +113,7 @@ public final class Components {
         return new Toolbar<>(null);
     }
 
-    public static <T> Toolbar<T> toolbar(DataProvider<T> dataProvider) {
+    public static <T> Toolbar<T> toolbar(ItemProvider<T> dataProvider) {
         return new Toolbar<>(dataProvider);
     }
 
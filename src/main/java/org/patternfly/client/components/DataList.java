@@ -15,6 +15,8 @@ import org.jboss.gwt.elemento.core.builder.HtmlContent;
 import org.jboss.gwt.elemento.core.builder.HtmlContentBuilder;
 import org.patternfly.client.dataprovider.DataProvider;
 import org.patternfly.client.dataprovider.Display;
+import org.patternfly.client.dataprovider.DisplayChanges;
+import org.patternfly.client.dataprovider.ItemProvider;
 import org.patternfly.client.dataprovider.PageInfo;
 import org.patternfly.client.dataprovider.SelectionInfo;
 import org.patternfly.client.dataprovider.SortInfo;
@@ -63,16 +65,18 @@ public class DataList<T> extends BaseComponent<HTMLUListElement, DataList<T>>
             .child(By.element("input").and(By.attribute("type", "checkbox")));
     private static final By EXPANDABLE_CONTENT_SELECTOR = By.classname(component(dataList, expandableContent));
 
-    private final DataProvider<T> dataProvider;
+    private final ItemProvider<T> dataProvider;
     private final Display<T> display;
     private final ItemSelect itemSelect;
+    private final ItemElements itemElements;
     private HandlerRegistration expandHandler;
 
-    DataList(DataProvider<T> dataProvider, Display<T> display) {
+    DataList(ItemProvider<T> dataProvider, Display<T> display) {
         super(ul().css(component(dataList)).attr(role, list).element(), "DataList");
         this.dataProvider = dataProvider;
         this.display = display;
         this.itemSelect = new ItemSelect(element);
+        this.itemElements = new ItemElements();
     }
 
     @Override
@@ -87,16 +91,52 @@ public class DataList<T> extends BaseComponent<HTMLUListElement, DataList<T>>
         itemSelect.removeSelectHandler();
         removeExpandHandler();
         removeChildrenFrom(element);
+        itemElements.clear();
 
+        for (T item : items) {
+            itemElements.add(element, renderItem(item));
+        }
+        bindHandlers();
+    }
+
+    @Override
+    public void updateItems(DisplayChanges<T> changes) {
+        itemSelect.removeSelectHandler();
+        removeExpandHandler();
+        itemElements.apply(element, changes, this::renderItem);
+        bindHandlers();
+    }
+
+    @Override
+    public void updateSelection(SelectionInfo<T> selectionInfo) {
+        // repaint only the items which have been (de)selected if possible
+        Iterable<T> items = selectionInfo.isAllChanged()
+                ? dataProvider.getVisibleItems()
+                : selectionInfo.getChangedItems();
         for (T item : items) {
             String id = dataProvider.getId(item);
-            HtmlContentBuilder<HTMLLIElement> li = li().css(component(dataList, Constants.item))
-                    .data(dataListItem, id)
-                    .aria(labelledBy, id);
-            display.render(li, dataProvider, item);
-            add(li);
+            itemSelect.updateSelection(By.data(dataListItem, id).desc(SELECT_ITEM_SELECTOR),
+                    selectionInfo.isSelected(item));
         }
+    }
+
+    @Override
+    public void updateSortInfo(SortInfo<T> sortInfo) {
+        // nothing to do
+    }
 
+    // ------------------------------------------------------ internals
+
+    private HTMLElement renderItem(T item) {
+        String id = dataProvider.getId(item);
+        HtmlContentBuilder<HTMLLIElement> li = li().css(component(dataList, Constants.item))
+                .data(dataListItem, id)
+                .aria(labelledBy, id);
+        display.render(li, dataProvider, item);
+        return li.element();
+    }
+
+    private void bindHandlers() {
         itemSelect.bindSelectHandler(SELECT_ITEM_SELECTOR,
                 checkbox -> {
                     HTMLElement itemElement = closest(checkbox, By.data(dataListItem));
@@ -114,22 +154,6 @@ public class DataList<T> extends BaseComponent<HTMLUListElement, DataList<T>>
         bindExpandHandler();
     }
 
-    @Override
-    public void updateSelection(SelectionInfo<T> selectionInfo) {
-        for (T item : dataProvider.getVisibleItems()) {
-            String id = dataProvider.getId(item);
-            itemSelect.updateSelection(By.data(dataListItem, id).desc(SELECT_ITEM_SELECTOR),
-                    selectionInfo.isSelected(item));
-        }
-    }
-
-    @Override
-    public void updateSortInfo(SortInfo<T> sortInfo) {
-        // nothing to do
-    }
-
-    // ------------------------------------------------------ internals
-
     private void bindExpandHandler() {
         List<HandlerRegistration> handler = new ArrayList<>();
         for (HTMLElement htmlElement : findAll(element, TOGGLE_SELECTOR)) {
@@ -141,13 +165,16 @@ public class DataList<T> extends BaseComponent<HTMLUListElement, DataList<T>>
                     if (itemId != null) {
                         String buttonId = buildId(itemId, toggle);
                         String contentId = buildId(itemId, expandableContent);
-                        htmlElement.id = buttonId;
-                        htmlElement.setAttribute(ARIA + labelledBy, itemId + " " + buttonId);
-                        htmlElement.setAttribute(ARIA + expanded, false_);
-                        htmlElement.setAttribute(ARIA + controls, contentId);
-                        contentElement.id = contentId;
-                        contentElement.hidden = true;
-                        contentElement.setAttribute(ARIA + label, "Details");
+                        if (!buttonId.equals(htmlElement.id)) {
+                            // new item: items kept by updateItems() keep their expanded state
+                            htmlElement.id = buttonId;
+                            htmlElement.setAttribute(ARIA + labelledBy, itemId + " " + buttonId);
+                            htmlElement.setAttribute(ARIA + expanded, false_);
+                            htmlElement.setAttribute(ARIA + controls, contentId);
+                            contentElement.id = contentId;
+                            contentElement.hidden = true;
+                            contentElement.setAttribute(ARIA + label, "Details");
+                        }
 
                         handler.add(bind(htmlElement, click, evt -> {
                             if (itemElement.classList.contains(modifier(expanded))) {
@@ -214,7 +241,7 @@ public class DataList<T> extends BaseComponent<HTMLUListElement, DataList<T>>
 
     public interface Display<T> {
 
-        void render(HtmlContentBuilder<HTMLLIElement> li, DataProvider<T> dataProvider, T item);
+        void render(HtmlContentBuilder<HTMLLIElement> li, ItemProvider<T> dataProvider, T item);
     }
 
     public static class Item extends ElementBuilder<HTMLLIElement, Item>
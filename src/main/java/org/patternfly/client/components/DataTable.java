@@ -1,9 +1,16 @@
 package org.patternfly.client.components;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import elemental2.dom.Element;
 import elemental2.dom.HTMLButtonElement;
@@ -22,11 +29,15 @@ import org.jboss.gwt.elemento.core.InputType;
 import org.jboss.gwt.elemento.core.builder.ElementBuilder;
 import org.jboss.gwt.elemento.core.builder.HtmlContent;
 import org.jboss.gwt.elemento.core.builder.HtmlContentBuilder;
+import org.patternfly.client.dataprovider.Aggregate;
 import org.patternfly.client.dataprovider.DataProvider;
 import org.patternfly.client.dataprovider.Display;
+import org.patternfly.client.dataprovider.DisplayChanges;
+import org.patternfly.client.dataprovider.ItemProvider;
 import org.patternfly.client.dataprovider.PageInfo;
 import org.patternfly.client.dataprovider.SelectionInfo;
 import org.patternfly.client.dataprovider.SortInfo;
+import org.patternfly.client.dataprovider.SortKeys;
 import org.patternfly.client.resources.Constants;
 
 import static org.jboss.gwt.elemento.core.Elements.*;
@@ -83,6 +94,13 @@ import static org.patternfly.client.resources.Dataset.dataTableSort;
  * dataProvider.update(...);
  * </pre>
  *
+ * <p>
+ * Clicking the header of a sortable column sorts by this column. Shift-clicking a header adds the column as secondary
+ * sort column. If the comparators of the columns are {@link SortKeys}, the combined comparator uses sort keys as well
+ * and the keys of each item are extracted only once per sort. Use {@link #intColumn(String, ToIntFunction,
+ * BodyDisplay)} and friends for numeric columns.
+ * </p>
+ *
  * @see <a href= "https://www.patternfly.org/v4/documentation/core/components/table">https://www.patternfly.org/v4/documentation/core/components/table</a>
  */
 public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
@@ -100,9 +118,11 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
     private static final By SELECT_ALL_SELECTOR = By.element("thead").desc(CHECK_SELECTOR);
     private static final By SELECT_ITEM_SELECTOR = By.element("tbody").desc(CHECK_SELECTOR);
 
-    private final DataProvider<T> dataProvider;
+    private final ItemProvider<T> dataProvider;
     private final List<Column<T>> columns;
+    private final List<String> sortKeys; // column ids, prefixed with '-' if descending
     private final ItemSelect itemSelect;
+    private final ItemElements itemElements;
     private HandlerRegistration selectAllHandler;
     private HandlerRegistration expandHandler;
     private Predicate<T> expandablePredicate;
@@ -113,17 +133,22 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
     private boolean checkboxColumn;
     private boolean actionsColumn;
     private int noContentColumns;
+    private List<HTMLTableCellElement> footerCells; // one per column, created by the first footer
+    private final Map<String, List<Footer>> footers; // by aggregate id
 
     private final HtmlContentBuilder<HTMLTableRowElement> theadRow;
     private final HtmlContentBuilder<HTMLTableSectionElement> tbody;
 
-    DataTable(DataProvider<T> dataProvider, String caption) {
+    DataTable(ItemProvider<T> dataProvider, String caption) {
         super(table().css(component(table))
                 .attr(role, grid).element());
         this.dataProvider = dataProvider;
         this.columns = new ArrayList<>();
+        this.sortKeys = new ArrayList<>();
         this.itemSelect = new ItemSelect(element);
+        this.itemElements = new ItemElements();
         this.noContentColumns = 0;
+        this.footers = new HashMap<>();
 
         if (caption != null) {
             element.appendChild(caption().textContent(caption).element());
@@ -151,6 +176,10 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
                 Element sortButton = find(th, By.data(dataTableSort, column.id));
                 if (sortButton != null) {
                     bind(sortButton, click, e -> {
+                        if (e.shiftKey && !sortKeys.isEmpty()) {
+                            addSortColumn(column);
+                            return;
+                        }
                         HTMLButtonElement b = (HTMLButtonElement) e.currentTarget;
                         HTMLElement sortTh = closest(b, By.classname(component(table, sort)));
                         if (sortTh != null) {
@@ -179,6 +208,44 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
         return this;
     }
 
+    /**
+     * Shows an aggregate of the data provider in the footer row below the specified column. The footer row is added by
+     * the first call, so all columns must have been added before:
+     *
+     * <pre>
+     * dataProvider.addAggregate("size", File::getSize);
+     * table.footer("Size", "size", size -&gt; "Total: " + size.getSum());
+     * </pre>
+     *
+     * @see DataProvider#addAggregate(String, java.util.function.ToDoubleFunction)
+     */
+    public DataTable<T> footer(String columnName, String aggregate, Function<Aggregate, String> text) {
+        if (footerCells == null) {
+            footerCells = new ArrayList<>();
+            HtmlContentBuilder<HTMLTableRowElement> tr = tr();
+            for (int i = 0; i < columns.size(); i++) {
+                HtmlContentBuilder<HTMLTableCellElement> td = td();
+                footerCells.add(td.element());
+                tr.add(td);
+            }
+            HTMLTableSectionElement tfoot = tfoot().add(tr).element();
+            element.appendChild(tfoot);
+            itemElements.insertBefore(tfoot); // expandable tables add a tbody per item to the table itself
+        }
+        String id = buildId(columnName);
+        for (int i = 0; i < columns.size() && i < footerCells.size(); i++) {
+            if (columns.get(i).id.equals(id)) {
+                Footer footer = new Footer(footerCells.get(i), text);
+                footers.computeIfAbsent(aggregate, a -> new ArrayList<>()).add(footer);
+                Aggregate value = dataProvider.getAggregate(aggregate);
+                if (value != null) {
+                    footer.update(value);
+                }
+            }
+        }
+        return this;
+    }
+
     public DataTable<T> expandableRow(ExpandableDisplay<T> expandableDisplay) {
         return expandableRow(null, false, false, expandableDisplay);
     }
@@ -223,77 +290,31 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
         } else {
             removeChildrenFrom(tbody.element());
         }
+        itemElements.clear();
 
         for (T item : items) {
-            String id = dataProvider.getId(item);
-            HtmlContentBuilder<HTMLTableRowElement> tr = tr().data(dataTableItem, id);
-            for (Column<T> column : columns) {
-                HtmlContentBuilder<HTMLTableCellElement> td = td();
-                if (!EXPAND_COLUMN.equals(column.id) ||
-                        expandablePredicate == null ||
-                        expandablePredicate.test(item)) {
-                    if (column.bodyDisplay != null) {
-                        column.bodyDisplay.render(td, dataProvider, item);
-                    }
-                }
-                tr.add(td);
-            }
-
-            if (expandableColumn) {
-                HtmlContentBuilder<HTMLTableSectionElement> tbody = tbody().add(tr);
-                if (expandableDisplay != null) {
-                    if (expandablePredicate == null || expandablePredicate.test(item)) {
-                        HtmlContentBuilder<HTMLTableRowElement> etr = tr().css(component(table, expandableRow))
-                                .hidden(true);
-                        HtmlContentBuilder<HTMLTableCellElement> etd = td();
-                        HtmlContentBuilder<HTMLDivElement> ec = div().css(component(table, expandableRow, content));
-                        expandableDisplay.render(ec, dataProvider, item);
-                        if (expandableNoPadding) {
-                            etd.css(modifier(noPadding));
-                        }
-                        if (expandableFullWidth) {
-                            etr.add(etd.apply(e -> e.colSpan = columns.size()).add(ec));
-                        } else {
-                            if (checkboxColumn) {
-                                etr.add(td());
-                            }
-                            if (actionsColumn) {
-                                etr.add(td());
-                            }
-                            etr.add(etd.apply(e -> e.colSpan = columns.size() - noContentColumns).add(ec));
-                            if (actionsColumn) {
-                                etr.add(td());
-                            }
-                        }
-                        tbody.add(etr);
-                    }
-                }
-                element.appendChild(tbody.element());
-            } else {
-                tbody.add(tr);
-            }
+            itemElements.add(itemContainer(), renderItem(item));
         }
+        bindHandlers();
+    }
 
-        itemSelect.bindSelectHandler(SELECT_ITEM_SELECTOR,
-                checkbox -> {
-                    HTMLElement itemElement = closest(checkbox, By.data(dataTableItem));
-                    if (itemElement != null) {
-                        return itemElement.dataset.get(dataTableItem);
-                    }
-                    return null;
-                },
-                (id, selected) -> {
-                    T item = dataProvider.getItem(id);
-                    if (item != null) {
-                        dataProvider.select(item, selected);
-                    }
-                });
-        bindExpandHandler();
+    @Override
+    public void updateItems(DisplayChanges<T> changes) {
+        itemSelect.removeSelectHandler();
+        if (expandHandler != null) {
+            expandHandler.removeHandler();
+        }
+        itemElements.apply(itemContainer(), changes, this::renderItem);
+        bindHandlers();
     }
 
     @Override
     public void updateSelection(SelectionInfo<T> selectionInfo) {
-        for (T item : dataProvider.getVisibleItems()) {
+        // repaint only the items which have been (de)selected if possible
+        Iterable<T> items = selectionInfo.isAllChanged()
+                ? dataProvider.getVisibleItems()
+                : selectionInfo.getChangedItems();
+        for (T item : items) {
             String id = dataProvider.getId(item);
             itemSelect.updateSelection(By.data(dataTableItem, id).desc(CHECK_SELECTOR),
                     selectionInfo.isSelected(item));
@@ -302,14 +323,23 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
 
     @Override
     public void updateSortInfo(SortInfo<T> sortInfo) {
+        sortKeys.clear();
+        if (!sortInfo.isEmpty()) {
+            if (sortInfo.getId().indexOf(',') >= 0) {
+                Collections.addAll(sortKeys, sortInfo.getId().split(","));
+            } else {
+                sortKeys.add(sortInfo.isAscending() ? sortInfo.getId() : "-" + sortInfo.getId());
+            }
+        }
         for (HTMLElement e : findAll(theadRow, SORT_SELECTOR)) {
             HTMLButtonElement button = find(e, By.data(dataTableSort));
             HTMLElement tsi = find(e, By.classname(component(table, sort, indicator)));
             if (button != null && tsi != null) {
                 removeChildrenFrom(tsi);
-                if (sortInfo.getId().equals(button.dataset.get(dataTableSort))) {
+                String id = button.dataset.get(dataTableSort);
+                if (sortKeys.contains(id) || sortKeys.contains("-" + id)) {
                     e.classList.add(modifier(selected));
-                    if (sortInfo.isAscending()) {
+                    if (sortKeys.contains(id)) {
                         e.setAttribute(ARIA_SORT, "descending");
                         tsi.appendChild(i().css(fas("long-arrow-alt-up")).element());
                     } else {
@@ -325,6 +355,60 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
         }
     }
 
+    /**
+     * Adds the column as secondary sort column or toggles its direction if the items are already sorted by the
+     * column. Sorting by more than one column uses the ids of the columns separated by {@code ,} as sort id. Descending
+     * columns are prefixed with {@code -}.
+     */
+    private void addSortColumn(Column<T> column) {
+        List<String> keys = new ArrayList<>();
+        boolean found = false;
+        for (String key : sortKeys) {
+            boolean descending = key.startsWith("-");
+            String id = descending ? key.substring(1) : key;
+            if (sortColumn(id) != null) {
+                if (id.equals(column.id)) {
+                    key = descending ? id : "-" + id;
+                    found = true;
+                }
+                keys.add(key);
+            }
+        }
+        if (!found) {
+            keys.add(column.id);
+        }
+
+        Comparator<T> comparator = null;
+        for (String key : keys) {
+            boolean descending = key.startsWith("-");
+            Column<T> sortColumn = sortColumn(descending ? key.substring(1) : key);
+            Comparator<T> c = descending ? sortColumn.comparator.reversed() : sortColumn.comparator;
+            comparator = comparator == null ? c : comparator.thenComparing(c);
+        }
+        boolean ascending = !keys.get(0).startsWith("-");
+        String id = keys.size() == 1 ? column.id : String.join(",", keys);
+        dataProvider.sort(new SortInfo<>(id, comparator, ascending));
+    }
+
+    private Column<T> sortColumn(String id) {
+        for (Column<T> column : columns) {
+            if (column.id.equals(id) && column.comparator != null) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void updateAggregate(Aggregate aggregate) {
+        List<Footer> footers = this.footers.get(aggregate.getId());
+        if (footers != null) {
+            for (Footer footer : footers) {
+                footer.update(aggregate);
+            }
+        }
+    }
+
     // ------------------------------------------------------ modifiers
 
     public DataTable<T> compact() {
@@ -367,6 +451,77 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
         }
     }
 
+    private HTMLElement itemContainer() {
+        return expandableColumn ? element : tbody.element();
+    }
+
+    private HTMLElement renderItem(T item) {
+        String id = dataProvider.getId(item);
+        HtmlContentBuilder<HTMLTableRowElement> tr = tr().data(dataTableItem, id);
+        for (Column<T> column : columns) {
+            HtmlContentBuilder<HTMLTableCellElement> td = td();
+            if (!EXPAND_COLUMN.equals(column.id) ||
+                    expandablePredicate == null ||
+                    expandablePredicate.test(item)) {
+                if (column.bodyDisplay != null) {
+                    column.bodyDisplay.render(td, dataProvider, item);
+                }
+            }
+            tr.add(td);
+        }
+
+        if (expandableColumn) {
+            HtmlContentBuilder<HTMLTableSectionElement> tbody = tbody().add(tr);
+            if (expandableDisplay != null) {
+                if (expandablePredicate == null || expandablePredicate.test(item)) {
+                    HtmlContentBuilder<HTMLTableRowElement> etr = tr().css(component(table, expandableRow))
+                            .hidden(true);
+                    HtmlContentBuilder<HTMLTableCellElement> etd = td();
+                    HtmlContentBuilder<HTMLDivElement> ec = div().css(component(table, expandableRow, content));
+                    expandableDisplay.render(ec, dataProvider, item);
+                    if (expandableNoPadding) {
+                        etd.css(modifier(noPadding));
+                    }
+                    if (expandableFullWidth) {
+                        etr.add(etd.apply(e -> e.colSpan = columns.size()).add(ec));
+                    } else {
+                        if (checkboxColumn) {
+                            etr.add(td());
+                        }
+                        if (actionsColumn) {
+                            etr.add(td());
+                        }
+                        etr.add(etd.apply(e -> e.colSpan = columns.size() - noContentColumns).add(ec));
+                        if (actionsColumn) {
+                            etr.add(td());
+                        }
+                    }
+                    tbody.add(etr);
+                }
+            }
+            return tbody.element();
+        }
+        return tr.element();
+    }
+
+    private void bindHandlers() {
+        itemSelect.bindSelectHandler(SELECT_ITEM_SELECTOR,
+                checkbox -> {
+                    HTMLElement itemElement = closest(checkbox, By.data(dataTableItem));
+                    if (itemElement != null) {
+                        return itemElement.dataset.get(dataTableItem);
+                    }
+                    return null;
+                },
+                (id, selected) -> {
+                    T item = dataProvider.getItem(id);
+                    if (item != null) {
+                        dataProvider.select(item, selected);
+                    }
+                });
+        bindExpandHandler();
+    }
+
     private void bindExpandHandler() {
         List<HandlerRegistration> handler = new ArrayList<>();
         for (HTMLElement e : findAll(element, TOGGLE_SELECTOR)) {
@@ -378,13 +533,16 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
                     String itemId = itemElement.dataset.get(dataTableItem);
                     String buttonId = buildId(itemId, toggle);
                     String contentId = buildId(itemId, expandableContent);
-                    e.id = buttonId;
-                    e.setAttribute(ARIA + labelledBy, itemId + " " + buttonId);
-                    e.setAttribute(ARIA + expanded, false_);
-                    e.setAttribute(ARIA + controls, contentId);
-                    contentRow.id = contentId;
-                    contentRow.hidden = true;
-                    contentRow.setAttribute(ARIA + label, "Details");
+                    if (!buttonId.equals(e.id)) {
+                        // new item: items kept by updateItems() keep their expanded state
+                        e.id = buttonId;
+                        e.setAttribute(ARIA + labelledBy, itemId + " " + buttonId);
+                        e.setAttribute(ARIA + expanded, false_);
+                        e.setAttribute(ARIA + controls, contentId);
+                        contentRow.id = contentId;
+                        contentRow.hidden = true;
+                        contentRow.setAttribute(ARIA + label, "Details");
+                    }
 
                     handler.add(bind(e, click, evt -> {
                         if (tbody.classList.contains(modifier(expanded))) {
@@ -472,6 +630,19 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
                 bodyDisplay, null);
     }
 
+    /** Returns a column which is sorted by a numeric key. The keys are neither boxed for sorting nor when cached. */
+    public static <T> Column<T> intColumn(String name, ToIntFunction<T> sortKey, BodyDisplay<T> bodyDisplay) {
+        return column(name, SortKeys.byInt(sortKey), bodyDisplay);
+    }
+
+    public static <T> Column<T> longColumn(String name, ToLongFunction<T> sortKey, BodyDisplay<T> bodyDisplay) {
+        return column(name, SortKeys.byLong(sortKey), bodyDisplay);
+    }
+
+    public static <T> Column<T> doubleColumn(String name, ToDoubleFunction<T> sortKey, BodyDisplay<T> bodyDisplay) {
+        return column(name, SortKeys.byDouble(sortKey), bodyDisplay);
+    }
+
     public static <T> Column<T> column(String name, HeadDisplay headDisplay, BodyDisplay<T> bodyDisplay) {
         return new Column<>(name, null, headDisplay, bodyDisplay, null);
     }
@@ -492,7 +663,7 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
     @FunctionalInterface
     public interface BodyDisplay<T> {
 
-        void render(HtmlContentBuilder<HTMLTableCellElement> td, DataProvider<T> dataProvider, T item);
+        void render(HtmlContentBuilder<HTMLTableCellElement> td, ItemProvider<T> dataProvider, T item);
 
         default BodyDisplay<T> andThen(BodyDisplay<T> after) {
             return (td, dataProvider, item) -> {
@@ -505,7 +676,7 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
     @FunctionalInterface
     public interface ExpandableDisplay<T> {
 
-        void render(HtmlContentBuilder<HTMLDivElement> html, DataProvider<T> dataProvider, T item);
+        void render(HtmlContentBuilder<HTMLDivElement> html, ItemProvider<T> dataProvider, T item);
 
         default ExpandableDisplay<T> andThen(ExpandableDisplay<T> after) {
             return (html, dataProvider, item) -> {
@@ -518,7 +689,7 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
     @FunctionalInterface
     public interface CompoundDisplay<T> {
 
-        void render(HtmlContentBuilder<HTMLTableCellElement> html, DataProvider<T> dataProvider, T item);
+        void render(HtmlContentBuilder<HTMLTableCellElement> html, ItemProvider<T> dataProvider, T item);
 
         default CompoundDisplay<T> andThen(CompoundDisplay<T> after) {
             return (html, dataProvider, item) -> {
@@ -528,6 +699,21 @@ public class DataTable<T> extends ElementBuilder<HTMLTableElement, DataTable<T>>
         }
     }
 
+    private static class Footer {
+
+        private final HTMLTableCellElement td;
+        private final Function<Aggregate, String> text;
+
+        private Footer(HTMLTableCellElement td, Function<Aggregate, String> text) {
+            this.td = td;
+            this.text = text;
+        }
+
+        private void update(Aggregate aggregate) {
+            td.textContent = text.apply(aggregate);
+        }
+    }
+
     public static class Column<T> {
 
         private final String id;
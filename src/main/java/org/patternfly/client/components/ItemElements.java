@@ -0,0 +1,84 @@
+package org.patternfly.client.components;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import elemental2.dom.HTMLElement;
+import elemental2.dom.Node;
+import org.patternfly.client.dataprovider.DisplayChanges;
+
+import static org.jboss.gwt.elemento.core.Elements.failSafeRemoveFromParent;
+
+/**
+ * Reusable class for data components which keep track of their item elements in order to patch them instead of
+ * rebuilding all elements.
+ */
+class ItemElements {
+
+    private final List<HTMLElement> elements;
+    private Node end;
+
+    ItemElements() {
+        this.elements = new ArrayList<>();
+    }
+
+    void clear() {
+        elements.clear();
+    }
+
+    /**
+     * Item elements are added before the specified node if the node is a child of the container, e.g. before the
+     * footer of a table whose item elements are added to the table itself.
+     */
+    void insertBefore(Node end) {
+        this.end = end;
+    }
+
+    /** Appends the element to the container and remembers it as last item element */
+    void add(HTMLElement container, HTMLElement element) {
+        append(container, element);
+        elements.add(element);
+    }
+
+    /** Applies the changes in order. Inserted and updated items are rendered using the specified function. */
+    <T> void apply(HTMLElement container, DisplayChanges<T> changes, Function<T, HTMLElement> render) {
+        for (int i = 0; i < changes.size(); i++) {
+            switch (changes.kind(i)) {
+                case INSERT:
+                    insert(container, changes.index(i), render.apply(changes.item(i)));
+                    break;
+                case REMOVE:
+                    failSafeRemoveFromParent(elements.remove(changes.index(i)));
+                    break;
+                case MOVE:
+                    insert(container, changes.toIndex(i), elements.remove(changes.index(i)));
+                    break;
+                case UPDATE:
+                    HTMLElement element = render.apply(changes.item(i));
+                    HTMLElement existing = elements.set(changes.index(i), element);
+                    container.replaceChild(element, existing);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void insert(HTMLElement container, int index, HTMLElement element) {
+        if (index < elements.size()) {
+            container.insertBefore(element, elements.get(index));
+        } else {
+            append(container, element);
+        }
+        elements.add(index, element);
+    }
+
+    private void append(HTMLElement container, HTMLElement element) {
+        if (end != null && end.parentNode == container) {
+            container.insertBefore(element, end);
+        } else {
+            container.appendChild(element);
+        }
+    }
+}
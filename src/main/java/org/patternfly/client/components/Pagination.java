@@ -11,6 +11,7 @@ import org.jboss.gwt.elemento.core.builder.HtmlContentBuilder;
 import org.patternfly.client.core.Callback;
 import org.patternfly.client.core.Disable;
 import org.patternfly.client.dataprovider.PageInfo;
+import org.patternfly.client.dataprovider.PageInfo.TotalKind;
 
 import static org.jboss.gwt.elemento.core.Elements.input;
 import static org.jboss.gwt.elemento.core.Elements.nav;
@@ -182,31 +183,65 @@ public class Pagination extends BaseComponent<HTMLDivElement, Pagination>
         for (HTMLElement element : elements) {
             removeChildrenFrom(element);
             HtmlContentBuilder<HTMLElement> builder = new HtmlContentBuilder<>(element);
-            builder
-                    .add(b().textContent(pageInfo.getFrom() + " - " + pageInfo.getTo()))
-                    .add(" of ")
-                    .add(b().textContent(String.valueOf(pageInfo.getTotal())));
+            builder.add(b().textContent(pageInfo.getFrom() + " - " + pageInfo.getTo()));
+            if (pageInfo.isTotalKnown()) {
+                builder.add(" of ").add(b().textContent(total(pageInfo)));
+            }
         }
 
         pageSizeMenu.select(pageInfo.getPageSize());
         gotoPageInput.value = String.valueOf(pageInfo.getPage() + 1);
         gotoPageInput.max = String.valueOf(pageInfo.getPages());
-        gotoPageInput.disabled = pageInfo.getPages() < 2;
-        pagesElement.textContent = "of " + pageInfo.getPages();
+        // pages addressed by cursor can't be requested by index
+        gotoPageInput.disabled = pageInfo.isCursor() || pageInfo.getPages() < 2;
+        pagesElement.textContent = pageInfo.getTotalKind() == TotalKind.EXACT ? "of " + pageInfo.getPages() : "";
 
-        if (pageInfo.getPage() == 0) {
-            firstPageButton.disable();
-            previousPageButton.disable();
-        } else {
+        if (pageInfo.hasPreviousPage()) {
             firstPageButton.enable();
             previousPageButton.enable();
+        } else {
+            firstPageButton.disable();
+            previousPageButton.disable();
         }
-        if (pageInfo.getPage() == pageInfo.getPages() - 1) {
+        if (pageInfo.hasNextPage()) {
+            nextPageButton.enable();
+        } else {
             nextPageButton.disable();
+        }
+        if (pageInfo.hasNextPage() && !pageInfo.isCursor()) {
+            lastPageButton.enable();
+        } else {
             lastPageButton.disable();
+        }
+    }
+
+    /** Returns the total as text, e.g. "1234", "about 1.2M" or "at least 500". */
+    static String total(PageInfo pageInfo) {
+        switch (pageInfo.getTotalKind()) {
+            case ESTIMATED:
+                return "about " + abbreviate(pageInfo.getTotal());
+            case AT_LEAST:
+                return "at least " + pageInfo.getTotal();
+            case UNKNOWN:
+                return "many";
+            default:
+                return String.valueOf(pageInfo.getTotal());
+        }
+    }
+
+    private static String abbreviate(int number) {
+        if (number < 1000) {
+            return String.valueOf(number);
+        } else if (number < 1000000) {
+            return tenths(number / 100) + "K";
         } else {
-            nextPageButton.enable();
-            lastPageButton.enable();
+            return tenths(number / 100000) + "M";
         }
     }
+
+    private static String tenths(int tenths) {
+        int integer = tenths / 10;
+        int fraction = tenths % 10;
+        return fraction == 0 || integer >= 100 ? String.valueOf(integer) : integer + "." + fraction;
+    }
 }
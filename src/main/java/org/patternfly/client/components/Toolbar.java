@@ -10,7 +10,6 @@ import java.util.Stack;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.StreamSupport;
 
 import elemental2.dom.HTMLButtonElement;
 import elemental2.dom.HTMLDivElement;
@@ -25,8 +24,12 @@ import org.jboss.gwt.elemento.core.builder.HtmlContent;
 import org.jboss.gwt.elemento.core.builder.HtmlContentBuilder;
 import org.patternfly.client.dataprovider.DataProvider;
 import org.patternfly.client.dataprovider.Display;
+import org.patternfly.client.dataprovider.Fields;
+import org.patternfly.client.dataprovider.Filter;
+import org.patternfly.client.dataprovider.ItemProvider;
 import org.patternfly.client.dataprovider.PageInfo;
 import org.patternfly.client.dataprovider.SelectionInfo;
+import org.patternfly.client.dataprovider.Sort;
 import org.patternfly.client.dataprovider.SortInfo;
 import org.patternfly.client.resources.Constants;
 
@@ -54,13 +57,14 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
     private static final By TOGGLE_SELECTOR = By.classname(component(dataToolbar, toggle))
             .desc(By.element("button"));
 
-    private final DataProvider<T> dataProvider;
+    private final ItemProvider<T> dataProvider;
     private BulkSelect bulkSelect;
     private SortMenu<T> sortMenu;
     private Pagination pagination;
     private HandlerRegistration toggleGroupHandler;
+    private PageInfo pageInfo;
 
-    Toolbar(DataProvider<T> dataProvider) {
+    Toolbar(ItemProvider<T> dataProvider) {
         super(div().css(component(dataToolbar)).element(), "Toolbar");
         this.dataProvider = dataProvider;
         Attachable.register(element, this);
@@ -91,11 +95,14 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
 
     @Override
     public void showItems(Iterable<T> items, PageInfo pageInfo) {
-        if (pagination != null) {
-            pagination.update(pageInfo);
-        }
+        update(pageInfo);
+    }
+
+    @Override
+    public void updatePageInfo(PageInfo pageInfo) {
+        update(pageInfo);
         if (bulkSelect != null) {
-            bulkSelect.update(pageInfo);
+            updateSelection(dataProvider.getSelectionInfo());
         }
     }
 
@@ -103,9 +110,11 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
     public void updateSelection(SelectionInfo<T> selectionInfo) {
         if (bulkSelect != null) {
             int selected = selectionInfo.getSelectionCount();
-            int filtered = (int) StreamSupport.stream(dataProvider.getFilteredItems().spliterator(), false).count();
-            int visible = (int) StreamSupport.stream(dataProvider.getVisibleItems().spliterator(), false).count();
-            int all = (int) StreamSupport.stream(dataProvider.getAllItems().spliterator(), false).count();
+            // the filtered and visible counts are known from the last page info
+            int visible = pageInfo != null ? pageInfo.getVisible() : 0;
+            // if the total is unknown, only the loaded items are known
+            int filtered = pageInfo != null && pageInfo.isTotalKnown() ? pageInfo.getTotal() : visible;
+            int all = dataProvider.getAllItemsCount();
             bulkSelect.update(selected, filtered, visible, all);
         }
     }
@@ -119,6 +128,16 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
 
     // ------------------------------------------------------ internal
 
+    private void update(PageInfo pageInfo) {
+        this.pageInfo = pageInfo;
+        if (pagination != null) {
+            pagination.update(pageInfo);
+        }
+        if (bulkSelect != null) {
+            bulkSelect.update(pageInfo);
+        }
+    }
+
     private void bindToggleGroupHandler() {
         List<HandlerRegistration> handler = new ArrayList<>();
         for (HTMLElement htmlElement : findAll(element, TOGGLE_GROUP_SELECTOR)) {
@@ -330,7 +349,40 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
                 if (query == null || query.length() == 0) {
                     toolbar.dataProvider.removeFilter(id);
                 } else {
-                    toolbar.dataProvider.addFilter(id, filterFn.apply(query));
+                    toolbar.dataProvider.addFilter(id, query, filterFn.apply(query));
+                }
+            }));
+            return add(search.element());
+        }
+
+        /**
+         * Adds a search input which filters the specified field using a declarative {@link Filter}. The filter can be
+         * evaluated on the client and on the server.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Item add(String id, String placeholder, Fields<T> fields, String field, Filter.Operator operator) {
+            InputGroup.Search search = new InputGroup.Search(placeholder);
+            tlc.push(toolbar -> search.onSearch(query -> {
+                if (query == null || query.length() == 0) {
+                    toolbar.dataProvider.removeFilter(id);
+                } else {
+                    toolbar.dataProvider.addFilter(id, Filter.condition(field, operator, query), fields);
+                }
+            }));
+            return add(search.element());
+        }
+
+        /**
+         * Adds a search input which filters the items using the {@linkplain DataProvider#addTextIndex(String,
+         * java.util.List) text index} with the specified name. The text index has to be declared on the data provider.
+         */
+        public Item addTextSearch(String id, String placeholder, String textIndex) {
+            InputGroup.Search search = new InputGroup.Search(placeholder);
+            tlc.push(toolbar -> search.onSearch(query -> {
+                if (query == null || query.length() == 0) {
+                    toolbar.dataProvider.removeFilter(id);
+                } else {
+                    toolbar.dataProvider.addTextFilter(id, textIndex, query);
                 }
             }));
             return add(search.element());
@@ -407,7 +459,9 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
 
         private void update(PageInfo pageInfo) {
             SELECT_PAGE.text = "Select page (" + pageInfo.getVisible() + " items)";
-            SELECT_ALL.text = "Select all (" + pageInfo.getTotal() + " items)";
+            SELECT_ALL.text = pageInfo.isTotalKnown()
+                    ? "Select all (" + Pagination.total(pageInfo) + " items)"
+                    : "Select all";
             update(SELECT_PAGE);
             update(SELECT_ALL);
         }
@@ -457,7 +511,7 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
             sortDirection.onSelect(so -> sort(toolbar.dataProvider, sortBy.value(), so));
         }
 
-        private void sort(DataProvider<T> dataProvider, SortOption<T> sortBy, SortDirection sortDirection) {
+        private void sort(ItemProvider<T> dataProvider, SortOption<T> sortBy, SortDirection sortDirection) {
             if (sortBy != null) {
                 boolean ascending = sortDirection == null || sortDirection.ascending;
                 Comparator<T> c = ascending ? sortBy.comparator : sortBy.comparator.reversed();
@@ -521,6 +575,16 @@ public class Toolbar<T> extends BaseComponent<HTMLDivElement, Toolbar<T>>
             this.comparator = comparator;
         }
 
+        /**
+         * Sort option for a declarative {@link Sort}. The string representation of the sort is used as id, so that
+         * the sort can be executed on the server.
+         */
+        public SortOption(String name, Sort sort, Fields<T> fields) {
+            this.id = sort.toString();
+            this.name = name;
+            this.comparator = fields.comparator(sort);
+        }
+
         @Override
         public String toString() {
             return name;
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+/**
+ * Count, sum, average, minimum and maximum of a numeric value over the filtered items of a {@link DataProvider}. See
+ * {@link DataProvider#addAggregate(String, java.util.function.ToDoubleFunction)}.
+ *
+ * <p>
+ * Items with a value of {@code NaN} are not counted. Average, minimum and maximum are {@code NaN} if no item is
+ * counted.
+ * </p>
+ */
+public class Aggregate {
+
+    private final String id;
+    private int count;
+    private double sum;
+    private double min;
+    private double max;
+
+    Aggregate(String id) {
+        this.id = id;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+    }
+
+    void set(int count, double sum, double min, double max) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate(" + id + ", count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max + ')';
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Maintains an {@link Aggregate} over the filtered items. Only items which have been added to or removed from the
+ * filtered items are looked at, values are extracted once per item.
+ *
+ * <p>
+ * The sum is compensated (Neumaier), so that it doesn't drift when values are added and subtracted many times. The
+ * values are kept in a sorted multiset, so that minimum and maximum stay correct when items are removed.
+ * </p>
+ */
+class Aggregation<T> {
+
+    private final Aggregate aggregate;
+    private final ToDoubleFunction<T> value;
+    private final Bits members;
+    private final TreeMap<Double, int[]> multiset; // value -> number of items
+    private double[] values; // value by ordinal for the members
+    private int count;
+    private double sum;
+    private double compensation;
+    private boolean dirty; // the aggregate has to be updated
+    private boolean changed; // the displays have to be notified
+
+    Aggregation(String id, ToDoubleFunction<T> value) {
+        this.aggregate = new Aggregate(id);
+        this.value = value;
+        this.members = new Bits();
+        this.multiset = new TreeMap<>();
+        this.values = new double[0];
+    }
+
+    /** Returns the up to date aggregate. */
+    Aggregate aggregate() {
+        if (dirty) {
+            aggregate.set(count, sum + compensation, count == 0 ? Double.NaN : multiset.firstKey(),
+                    count == 0 ? Double.NaN : multiset.lastKey());
+            dirty = false;
+        }
+        return aggregate;
+    }
+
+    /** Returns whether the aggregate has changed since the last call and resets the flag. */
+    boolean changed() {
+        boolean result = changed;
+        changed = false;
+        return result;
+    }
+
+    /** Aggregates exactly the items in {@code target}. Only the differences to the current members are processed. */
+    void update(Bits target, ItemStore<T> store) {
+        for (int ordinal = members.nextSetBit(0); ordinal >= 0; ordinal = members.nextSetBit(ordinal + 1)) {
+            if (!target.get(ordinal)) {
+                exclude(ordinal);
+            }
+        }
+        for (int ordinal = target.nextSetBit(0); ordinal >= 0; ordinal = target.nextSetBit(ordinal + 1)) {
+            if (!members.get(ordinal)) {
+                include(ordinal, store.get(ordinal));
+            }
+        }
+    }
+
+    void include(int ordinal, T item) {
+        if (ordinal >= values.length) {
+            values = Arrays.copyOf(values, Math.max(2 * values.length, ordinal + 1));
+        }
+        double v = value.applyAsDouble(item);
+        values[ordinal] = v;
+        members.set(ordinal);
+        if (!Double.isNaN(v)) {
+            int[] n = multiset.get(v);
+            if (n == null) {
+                multiset.put(v, new int[]{1});
+            } else {
+                n[0]++;
+            }
+            count++;
+            add(v);
+        }
+    }
+
+    /** Removes the item from the aggregate. Must be called <em>before</em> the item is removed or replaced. */
+    void exclude(int ordinal) {
+        if (members.get(ordinal)) {
+            members.clear(ordinal);
+            double v = values[ordinal];
+            if (!Double.isNaN(v)) {
+                int[] n = multiset.get(v);
+                if (--n[0] == 0) {
+                    multiset.remove(v);
+                }
+                count--;
+                add(-v);
+            }
+        }
+    }
+
+    void clear() {
+        members.clear();
+        multiset.clear();
+        count = 0;
+        sum = 0;
+        compensation = 0;
+        dirty = true;
+        changed = true;
+    }
+
+    private void add(double v) {
+        double t = sum + v;
+        if (Math.abs(sum) >= Math.abs(v)) {
+            compensation += (sum - t) + v;
+        } else {
+            compensation += (v - t) + sum;
+        }
+        sum = t;
+        if (count == 0) {
+            sum = 0; // no error can remain without values
+            compensation = 0;
+        }
+        dirty = true;
+        changed = true;
+    }
+}
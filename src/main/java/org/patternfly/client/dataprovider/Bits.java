@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Compact, growable set of non-negative integers used to store per item flags keyed by the item ordinal. Uses 32 bit
+ * words since 64 bit longs are emulated in GWT.
+ */
+class Bits {
+
+    private static final int SHIFT = 5;
+    private static final int MASK = 31;
+
+    private int[] words;
+
+    Bits() {
+        this(0);
+    }
+
+    Bits(int capacity) {
+        this.words = new int[max(1, wordIndex(capacity - 1) + 1)];
+    }
+
+    private Bits(int[] words) {
+        this.words = words;
+    }
+
+    Bits copy() {
+        int[] copy = new int[words.length];
+        System.arraycopy(words, 0, copy, 0, words.length);
+        return new Bits(copy);
+    }
+
+    /** Sets the bits to the bits of {@code other} reusing the backing array if possible. */
+    void copyFrom(Bits other) {
+        if (words.length < other.words.length) {
+            words = new int[other.words.length];
+        }
+        System.arraycopy(other.words, 0, words, 0, other.words.length);
+        for (int i = other.words.length; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    boolean get(int index) {
+        int word = wordIndex(index);
+        return word < words.length && (words[word] & (1 << (index & MASK))) != 0;
+    }
+
+    void set(int index) {
+        int word = wordIndex(index);
+        ensureWords(word + 1);
+        words[word] |= 1 << (index & MASK);
+    }
+
+    void set(int index, boolean value) {
+        if (value) {
+            set(index);
+        } else {
+            clear(index);
+        }
+    }
+
+    void clear(int index) {
+        int word = wordIndex(index);
+        if (word < words.length) {
+            words[word] &= ~(1 << (index & MASK));
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    /** Keeps only the bits which are also set in {@code other}. */
+    void and(Bits other) {
+        int common = min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= other.words[i];
+        }
+        for (int i = common; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    /** Adds the bits which are set in {@code other}. */
+    void or(Bits other) {
+        ensureWords(other.words.length);
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /** Returns the number of bits which are set in both this and {@code other} without creating a copy. */
+    int andCardinality(Bits other) {
+        int cardinality = 0;
+        int common = min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            cardinality += Integer.bitCount(words[i] & other.words[i]);
+        }
+        return cardinality;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int word : words) {
+            cardinality += Integer.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        for (int word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the index of the first set bit at or after {@code from} or -1 if there's no such bit. */
+    int nextSetBit(int from) {
+        int word = wordIndex(from);
+        if (word >= words.length) {
+            return -1;
+        }
+        int bits = words[word] & (-1 << (from & MASK));
+        while (true) {
+            if (bits != 0) {
+                return (word << SHIFT) + Integer.numberOfTrailingZeros(bits);
+            }
+            word++;
+            if (word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bits)) {
+            return false;
+        }
+        Bits other = (Bits) o;
+        int common = min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if (words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        return zeroFrom(words, common) && zeroFrom(other.words, common);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                result = 31 * result + i;
+                result = 31 * result + words[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Bits(");
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (builder.length() > 5) {
+                builder.append(", ");
+            }
+            builder.append(i);
+        }
+        return builder.append(')').toString();
+    }
+
+    private void ensureWords(int length) {
+        if (words.length < length) {
+            int[] grown = new int[max(length, words.length * 2)];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+    }
+
+    private static boolean zeroFrom(int[] words, int from) {
+        for (int i = from; i < words.length; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int wordIndex(int index) {
+        return index >> SHIFT;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Data loader which caches the loaded pages and prefetches the pages next to the requested page. Wraps the data loader
+ * which actually loads the pages:
+ *
+ * <pre>
+ * DataLoader&lt;Entry&gt; loader = (query, callback) -&gt; ...;
+ * RemoteDataProvider&lt;Entry&gt; dataProvider = new RemoteDataProvider&lt;&gt;(Entry::getId,
+ *         new CachingDataLoader&lt;&gt;(loader));
+ * </pre>
+ *
+ * <p>
+ * Pages are cached by query, i.e. by filters, sort order, page size and page index. If the cache is full, the least
+ * recently used page is evicted. After a page has been requested, the previous and the next page are loaded in the
+ * background, so that paging back and forth is served from memory. Whether there's a next page is decided like {@link
+ * PageInfo#hasNextPage()}, so pages are prefetched if the total is estimated or unknown, too.
+ * </p>
+ *
+ * <p>
+ * The adjacent pages of {@linkplain PageQuery#isCursor() cursor based} queries are addressed by the cursors of the
+ * first and the last item of the loaded page. They're prefetched if the loader knows the cursor function of the data
+ * provider (see {@link #CachingDataLoader(DataLoader, int, boolean, Function)}).
+ * </p>
+ */
+public class CachingDataLoader<T> implements DataLoader<T> {
+
+    public static final int DEFAULT_CAPACITY = 10;
+
+    private final DataLoader<T> delegate;
+    private final boolean prefetch;
+    private final Function<T, String> cursor;
+    private final Map<PageQuery, Page<T>> cache;
+    private final Map<PageQuery, List<Callback<T>>> inFlight; // callbacks waiting for a page which is being loaded
+    private int generation; // incremented by invalidate()
+    private int hits;
+    private int misses;
+
+    public CachingDataLoader(DataLoader<T> delegate) {
+        this(delegate, DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * @param delegate the data loader which loads the pages
+     * @param capacity the maximal number of cached pages
+     * @param prefetch whether to load the previous and next page after a page has been requested
+     */
+    public CachingDataLoader(DataLoader<T> delegate, int capacity, boolean prefetch) {
+        this(delegate, capacity, prefetch, null);
+    }
+
+    /**
+     * @param delegate the data loader which loads the pages
+     * @param capacity the maximal number of cached pages
+     * @param prefetch whether to load the previous and next page after a page has been requested
+     * @param cursor   the cursor function of the {@link RemoteDataProvider}. Used to prefetch the pages next to cursor
+     *                 based queries.
+     */
+    public CachingDataLoader(DataLoader<T> delegate, int capacity, boolean prefetch, Function<T, String> cursor) {
+        this.delegate = delegate;
+        this.prefetch = prefetch;
+        this.cursor = cursor;
+        this.cache = new LinkedHashMap<PageQuery, Page<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageQuery, Page<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.inFlight = new HashMap<>();
+    }
+
+    @Override
+    public void load(PageQuery query, Callback<T> callback) {
+        Page<T> page = cache.get(query);
+        if (page != null) {
+            hits++;
+            callback.onSuccess(page.items, page.total, page.totalKind);
+            prefetch(query, page.items, page.total, page.totalKind);
+        } else {
+            misses++;
+            fetch(query, callback);
+        }
+    }
+
+    /**
+     * Drops the callbacks waiting for the response to the query. The request of the delegate is not cancelled: the
+     * response is still cached and might be requested again soon, e.g. when a search term is typed and corrected.
+     */
+    @Override
+    public void cancel(PageQuery query) {
+        List<Callback<T>> waiting = inFlight.get(query);
+        if (waiting != null) {
+            waiting.clear();
+        }
+    }
+
+    /** Discards all cached pages. Pages which are currently loaded won't be cached. */
+    @Override
+    public void invalidate() {
+        cache.clear();
+        generation++;
+    }
+
+    /** The number of requests which have been served from the cache. */
+    public int getHits() {
+        return hits;
+    }
+
+    /** The number of requests which have not been served from the cache. */
+    public int getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Loads the page using the delegate. If the page is already being loaded, the callback waits for that response.
+     *
+     * @param callback the callback or {@code null} to load the page into the cache only
+     */
+    private void fetch(PageQuery query, Callback<T> callback) {
+        List<Callback<T>> waiting = inFlight.get(query);
+        if (waiting != null) {
+            if (callback != null) {
+                waiting.add(callback);
+            }
+            return;
+        }
+
+        List<Callback<T>> callbacks = new ArrayList<>();
+        if (callback != null) {
+            callbacks.add(callback);
+        }
+        inFlight.put(query, callbacks);
+        int fetchGeneration = generation;
+        delegate.load(query, new Callback<T>() {
+            @Override
+            public void onSuccess(List<T> items, int total, PageInfo.TotalKind totalKind) {
+                inFlight.remove(query);
+                if (fetchGeneration == generation) {
+                    cache.put(query, new Page<>(items, total, totalKind));
+                }
+                if (!callbacks.isEmpty()) {
+                    for (Callback<T> c : callbacks) {
+                        c.onSuccess(items, total, totalKind);
+                    }
+                    // only around requested pages, not around prefetched or cancelled pages
+                    prefetch(query, items, total, totalKind);
+                }
+            }
+
+            @Override
+            public void onTotal(int total) {
+                if (fetchGeneration == generation) {
+                    Page<T> page = cache.get(query);
+                    if (page != null) {
+                        page.exact(total);
+                    }
+                }
+                for (Callback<T> c : callbacks) {
+                    c.onTotal(total);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                inFlight.remove(query);
+                for (Callback<T> c : callbacks) {
+                    c.onFailure(error);
+                }
+            }
+        });
+    }
+
+    private void prefetch(PageQuery query, List<T> items, int total, PageInfo.TotalKind totalKind) {
+        if (!prefetch || (query.isCursor() && (cursor == null || items.isEmpty()))) {
+            return;
+        }
+        PageInfo pageInfo = new PageInfo(query.getPageSize(), query.isCursor());
+        pageInfo.setTotal(total, totalKind);
+        pageInfo.setPage(query.getPage());
+        pageInfo.setNextPage(query, items.size());
+        if (pageInfo.hasNextPage()) {
+            prefetchPage(nextPage(query, items));
+        }
+        if (pageInfo.hasPreviousPage()) {
+            prefetchPage(previousPage(query, items));
+        }
+    }
+
+    /** The query for the next page as sent by {@link RemoteDataProvider#gotoNextPage()}. */
+    private PageQuery nextPage(PageQuery query, List<T> items) {
+        int next = query.getPage() + 1;
+        return query.isCursor()
+                ? query.withCursor(next, cursor.apply(items.get(items.size() - 1)), null)
+                : query.withPage(next);
+    }
+
+    /** The query for the previous page as sent by {@link RemoteDataProvider#gotoPreviousPage()}. */
+    private PageQuery previousPage(PageQuery query, List<T> items) {
+        int previous = query.getPage() - 1;
+        if (!query.isCursor()) {
+            return query.withPage(previous);
+        }
+        return previous == 0
+                ? query.withCursor(0, null, null)
+                : query.withCursor(previous, null, cursor.apply(items.get(0)));
+    }
+
+    private void prefetchPage(PageQuery query) {
+        if (!cache.containsKey(query)) {
+            fetch(query, null);
+        }
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    private static class Page<T> {
+
+        final List<T> items;
+        int total;
+        PageInfo.TotalKind totalKind;
+
+        Page(List<T> items, int total, PageInfo.TotalKind totalKind) {
+            this.items = items;
+            this.total = total;
+            this.totalKind = totalKind;
+        }
+
+        void exact(int total) {
+            this.total = total;
+            this.totalKind = PageInfo.TotalKind.EXACT;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of item modifications which is applied to a {@link DataProvider} in one go using {@link
+ * DataProvider#apply(Changes)}. The modifications are applied in the order they were recorded.
+ */
+public class Changes<T> {
+
+    enum Kind {
+        ADD, REMOVE, REPLACE
+    }
+
+    private final List<Kind> kinds;
+    private final List<T> items;
+
+    public Changes() {
+        this.kinds = new ArrayList<>();
+        this.items = new ArrayList<>();
+    }
+
+    public Changes<T> add(T item) {
+        return record(Kind.ADD, item);
+    }
+
+    public Changes<T> remove(T item) {
+        return record(Kind.REMOVE, item);
+    }
+
+    public Changes<T> replace(T item) {
+        return record(Kind.REPLACE, item);
+    }
+
+    public boolean isEmpty() {
+        return kinds.isEmpty();
+    }
+
+    public int size() {
+        return kinds.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Changes(" + kinds.size() + ')';
+    }
+
+    Kind kind(int index) {
+        return kinds.get(index);
+    }
+
+    T item(int index) {
+        return items.get(index);
+    }
+
+    private Changes<T> record(Kind kind, T item) {
+        kinds.add(kind);
+        items.add(item);
+        return this;
+    }
+}
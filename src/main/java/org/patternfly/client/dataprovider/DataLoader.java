@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.List;
+
+/**
+ * Loads the items of one page for a {@link RemoteDataProvider}, usually by sending the query to a server. Filtering,
+ * sorting and paging happen on the server.
+ */
+@FunctionalInterface
+public interface DataLoader<T> {
+
+    /**
+     * Loads the items for the specified query. Implementations call either {@link Callback#onSuccess(List, int)} or
+     * {@link Callback#onFailure(Throwable)} - synchronously or asynchronously.
+     */
+    void load(PageQuery query, Callback<T> callback);
+
+    /**
+     * Called if the response to the query is no longer needed, because a newer query has superseded it. Implementations
+     * can abort the request. Responses to cancelled queries are ignored anyway. The default implementation does
+     * nothing.
+     */
+    default void cancel(PageQuery query) {
+    }
+
+    /**
+     * Called if the items have to be loaded again, e.g. by {@link RemoteDataProvider#reload()}. Loaders which cache
+     * pages should discard them. The default implementation does nothing.
+     */
+    default void invalidate() {
+    }
+
+    interface Callback<T> {
+
+        /**
+         * @param items the items of the requested page
+         * @param total the exact number of all items matching the filters of the query or {@link
+         *              PageInfo#UNKNOWN_TOTAL}
+         */
+        default void onSuccess(List<T> items, int total) {
+            onSuccess(items, total,
+                    total == PageInfo.UNKNOWN_TOTAL ? PageInfo.TotalKind.UNKNOWN : PageInfo.TotalKind.EXACT);
+        }
+
+        /**
+         * Use this method if counting all items is expensive. Call it as soon as the items of the page are available
+         * together with an estimated total, a lower bound or an unknown total. Then call {@link #onTotal(int)} once
+         * the exact total is known.
+         *
+         * @param items     the items of the requested page
+         * @param total     the number of all items matching the filters of the query
+         * @param totalKind how accurate the total is
+         */
+        void onSuccess(List<T> items, int total, PageInfo.TotalKind totalKind);
+
+        /**
+         * Reports the exact total after {@link #onSuccess(List, int, PageInfo.TotalKind)} has been called, e.g. when a
+         * separate count query has finished. Only the page info of the displays is updated, the items are not shown
+         * again.
+         */
+        void onTotal(int total);
+
+        void onFailure(Throwable error);
+    }
+}
@@ -15,57 +15,139 @@
  */
 package org.patternfly.client.dataprovider;
 
-import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collector;
-import java.util.stream.Stream;
+import java.util.function.ToDoubleFunction;
 
 import org.patternfly.client.core.SelectHandler;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
-import static java.util.Collections.emptyList;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 
 /**
  * Holds items and state for components like data lists and tables. Modifications of items and state are reflected in
  * the bound displays.
+ *
+ * <p>
+ * Several modifications can be combined into one update using {@link #batch(Consumer)} or {@link #beginUpdate()} and
+ * {@link #endUpdate()}. Items are filtered, sorted and shown only once, when the outermost batch has been closed:
+ * </p>
+ *
+ * <pre>
+ * dataProvider.batch(dp -&gt; {
+ *     dp.addFilter("status", ...);
+ *     dp.addFilter("name", ...);
+ *     dp.sort(...);
+ *     dp.gotoPage(2);
+ * });
+ * </pre>
+ *
+ * <p>
+ * Several displays can show the same items with different filters, sort orders, pages and selections using
+ * {@linkplain #createView() views}. A view shares the items of its parent and is updated incrementally when the items
+ * of the parent change.
+ * </p>
+ *
+ * <p>
+ * Use {@link RemoteDataProvider} if the items are filtered, sorted and paged on the server. Both implement {@link
+ * ItemProvider}, which is the type the components work with.
+ * </p>
  */
-public class DataProvider<T> {
+public class DataProvider<T> implements ItemProvider<T> {
+
+    /** Sort only the items up to the current page, if they make up less than 1 / PARTIAL_SORT_RATIO of all items. */
+    private static final int PARTIAL_SORT_RATIO = 4;
 
     private final Function<T, String> identifier;
+    private final DataProvider<T> parent; // null unless this is a view
+    private final List<DataProvider<T>> views;
     private final PageInfo pageInfo;
     private final SelectionInfo<T> selectionInfo;
-    private final Map<String, T> allItems;
-    private final Map<String, Predicate<T>> filters;
+    private final ItemStore<T> allItems;
+    private final SortedIndex<T> sortedItems;
+    private final FilterChain<T> filters;
+    private final Map<String, RangeIndex<T>> rangeIndexes;
+    private final Map<String, TextIndex<T>> textIndexes;
+    private final Map<String, Facet<T>> facets;
+    private final Map<String, Aggregation<T>> aggregations;
+    private final Bits facetItems; // reused for each update
+    private final Bits matching; // reused for each update
+    private final OrdinalList filteredItems; // ordinals of the filtered items in sort order
+    private final Iterable<T> filteredView;
+    private final Iterable<T> visibleView;
     private final List<Display<T>> displays;
     private SortInfo<T> sortInfo;
+    private SortedIndex.OrdinalComparator position;
     private List<SelectHandler<T>> selectHandler;
-    private Map<String, T> filteredItems;
-    private Map<String, T> visibleItems;
+    private int visibleFrom; // index of the first visible item in filteredItems
+    private int visibleTo; // exclusive
+    private int[] shownSequence; // sequence numbers of the items shown by the displays
+    private int[] shownOrdinals;
+    private Object[] shownItems;
+    private int[] visibleSequence; // sequence numbers of the visible items, reused by diff()
+    private int[] remainingSequence; // reused by diff()
+    private int[] shownPositions; // index + 1 of the shown items by ordinal, 0 otherwise, reused by diff()
+    private int[] visiblePositions; // index + 1 of the visible items by ordinal, 0 otherwise, reused by diff()
+    private int shownCount; // -1 if the displays have to show all items
+    private boolean sorted;
+    private boolean partial; // only the filtered items up to the current page are sorted
+    private int partialTotal;
+    private int batchDepth;
+    private int capacity; // 0 if unbounded
+    private int throttle; // minimal interval between item notifications in ms, 0 if not throttled
+    private Scheduler scheduler;
+    private boolean throttled; // item modifications are waiting for a scheduled notification
+    private boolean scheduled;
+    private int pendingPage;
+    private boolean pendingUpdate;
+    private boolean pendingVisible;
+    private boolean pendingSelection;
 
     public DataProvider(Function<T, String> identifier) {
         this(identifier, PageInfo.DEFAULT_PAGE_SIZE);
     }
 
     public DataProvider(Function<T, String> identifier, int pageSize) {
+        this(identifier, pageSize, null);
+    }
+
+    private DataProvider(Function<T, String> identifier, int pageSize, DataProvider<T> parent) {
         this.identifier = identifier;
+        this.parent = parent;
+        this.views = new ArrayList<>();
         this.pageInfo = new PageInfo(pageSize);
-        this.selectionInfo = new SelectionInfo<>(identifier);
         this.sortInfo = new SortInfo<>();
-        this.allItems = new LinkedHashMap<>();
-        this.filteredItems = new LinkedHashMap<>();
-        this.visibleItems = new LinkedHashMap<>();
-        this.filters = new HashMap<>();
+        this.allItems = parent != null ? parent.allItems : new ItemStore<>();
+        this.sortedItems = new SortedIndex<>(allItems);
+        this.filters = new FilterChain<>();
+        this.rangeIndexes = new HashMap<>();
+        this.textIndexes = new HashMap<>();
+        this.facets = new LinkedHashMap<>();
+        this.aggregations = new LinkedHashMap<>();
+        this.facetItems = new Bits();
+        this.matching = new Bits();
+        this.selectionInfo = new SelectionInfo<>(identifier, allItems, matching);
+        this.filteredItems = new OrdinalList();
+        this.filteredView = new FilteredItems(false);
+        this.visibleView = new FilteredItems(true);
         this.selectHandler = new ArrayList<>();
         this.displays = new ArrayList<>();
+        this.shownSequence = new int[0];
+        this.shownOrdinals = new int[0];
+        this.shownItems = new Object[0];
+        this.visibleSequence = new int[0];
+        this.remainingSequence = new int[0];
+        this.shownPositions = new int[0];
+        this.visiblePositions = new int[0];
         reset();
     }
 
@@ -75,87 +157,297 @@ public class DataProvider<T> {
      * Replaces the items, resets the paging and selection and applies the current filter and sort order.
      */
     public void update(T[] items) {
+        if (parent != null) {
+            parent.update(items);
+            return;
+        }
+        allItems.clear();
         reset();
         for (T item : items) {
-            allItems.put(getId(item), item);
+            store(item);
         }
         internalUpdate();
+        for (DataProvider<T> view : views) {
+            view.itemsReplaced();
+            view.internalUpdate();
+        }
     }
 
     /**
      * Replaces the items, resets the paging and selection and applies the current filter and sort order.
      */
     public void update(Iterable<T> items) {
+        if (parent != null) {
+            parent.update(items);
+            return;
+        }
+        allItems.clear();
         reset();
         for (T item : items) {
-            allItems.put(getId(item), item);
+            store(item);
         }
         internalUpdate();
+        for (DataProvider<T> view : views) {
+            view.itemsReplaced();
+            view.internalUpdate();
+        }
+    }
+
+    /**
+     * Adds the item or replaces the item with the same identifier. Keeps the current filter, sort order, page and
+     * selection. Only the added item is filtered and sorted.
+     */
+    public void add(T item) {
+        if (parent != null) {
+            parent.add(item);
+        } else if (addInternal(item)) {
+            itemsModified();
+        }
+    }
+
+    /**
+     * Removes the item with the same identifier. Keeps the current filter, sort order, page and selection.
+     */
+    public void remove(T item) {
+        if (parent != null) {
+            parent.remove(item);
+        } else if (removeInternal(item)) {
+            itemsModified();
+        }
     }
 
+    /**
+     * Replaces the item with the same identifier. Does nothing if there's no such item. Keeps the current filter, sort
+     * order, page and selection. Only the replaced item is filtered and sorted.
+     */
+    public void replace(T item) {
+        if (parent != null) {
+            parent.replace(item);
+        } else if (replaceInternal(item)) {
+            itemsModified();
+        }
+    }
+
+    /**
+     * Applies the changes in the order they were recorded and updates the displays once. Keeps the current filter, sort
+     * order, page and selection.
+     */
+    public void apply(Changes<T> changes) {
+        if (parent != null) {
+            parent.apply(changes);
+            return;
+        }
+        boolean modified = false;
+        for (int i = 0; i < changes.size(); i++) {
+            T item = changes.item(i);
+            switch (changes.kind(i)) {
+                case ADD:
+                    modified |= addInternal(item);
+                    break;
+                case REMOVE:
+                    modified |= removeInternal(item);
+                    break;
+                case REPLACE:
+                    modified |= replaceInternal(item);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (modified) {
+            itemsModified();
+        }
+    }
+
+    @Override
     public boolean contains(T item) {
-        return allItems.containsKey(identifier.apply(item));
+        return ordinal(item) >= 0;
+    }
+
+    // ------------------------------------------------------ views
+
+    /**
+     * Creates a view over the items of this data provider. The view has its own filters, sort order, indexes, facets,
+     * aggregates, paging, selection and displays, but shares the items with this data provider: the items are stored
+     * and identified only once, while the view holds nothing but a few ints and bits per item. The view is updated
+     * incrementally when items are added, removed or replaced.
+     *
+     * <p>
+     * Item modifications made using the view are forwarded to this data provider and affect all views. Views of views
+     * are views of the data provider which holds the items.
+     * </p>
+     */
+    public DataProvider<T> createView() {
+        return createView(pageInfo.getPageSize());
+    }
+
+    /** Creates a view with the specified page size. See {@link #createView()}. */
+    public DataProvider<T> createView(int pageSize) {
+        if (parent != null) {
+            return parent.createView(pageSize);
+        }
+        DataProvider<T> view = new DataProvider<>(identifier, pageSize, this);
+        views.add(view);
+        view.internalUpdate();
+        return view;
+    }
+
+    /** Stops updating the view. The view must not be used afterwards. */
+    public void removeView(DataProvider<T> view) {
+        if (parent != null) {
+            parent.removeView(view);
+        } else {
+            views.remove(view);
+        }
     }
 
+    @Override
     public boolean isVisible(T item) {
-        return visibleItems.containsKey(identifier.apply(item));
+        int ordinal = ordinal(item);
+        return ordinal >= 0 && filteredItems.indexOf(ordinal, visibleFrom, visibleTo) >= 0;
     }
 
+    /**
+     * Returns the id of the item. The id of stored items is calculated only once, when the item is added.
+     */
+    @Override
     public String getId(T item) {
-        return identifier.apply(item);
+        int ordinal = allItems.identityOrdinal(item);
+        return ordinal >= 0 ? allItems.id(ordinal) : identifier.apply(item);
     }
 
+    @Override
     public T getItem(String id) {
         return allItems.get(id);
     }
 
+    @Override
     public Function<T, String> getIdentifier() {
         return identifier;
     }
 
+    @Override
     public Iterable<T> getAllItems() {
         return allItems.values();
     }
 
+    /** Returns the number of all items regardless of the filters. */
+    @Override
+    public int getAllItemsCount() {
+        return allItems.size();
+    }
+
+    @Override
     public Iterable<T> getFilteredItems() {
-        return filteredItems.values();
+        ensureSorted();
+        return filteredView;
     }
 
+    @Override
     public Iterable<T> getVisibleItems() {
-        return visibleItems.values();
+        return visibleView;
+    }
+
+    // ------------------------------------------------------ streams
+
+    /**
+     * Limits the number of items. If adding an item exceeds the capacity, the oldest item (in insertion order) is
+     * removed first. That way the data provider holds a sliding window over an append only stream of items. Finding the
+     * oldest item takes constant time and the added item reuses its ordinal, so memory stays flat. Filters, sort order,
+     * indexes, facets and aggregates are updated incrementally for both items.
+     *
+     * <p>
+     * If there are more items than the new capacity, the oldest items are removed right away.
+     * </p>
+     *
+     * @param capacity the maximal number of items or 0 for no limit
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        if (parent != null) {
+            parent.setCapacity(capacity);
+            return;
+        }
+        this.capacity = capacity;
+        if (capacity > 0 && allItems.size() > capacity) {
+            prepareModification();
+            while (allItems.size() > capacity) {
+                evictOldest();
+            }
+            itemsModified();
+        }
+    }
+
+    /** Returns the capacity of the data provider which holds the items. */
+    public int getCapacity() {
+        return parent != null ? parent.getCapacity() : capacity;
+    }
+
+    /**
+     * Limits the rate at which item modifications made by {@link #add(Object)}, {@link #remove(Object)},
+     * {@link #replace(Object)} and {@link #apply(Changes)} are shown. Instead of notifying the displays right away, a
+     * notification is scheduled to run after {@code interval} milliseconds. All modifications made until then are
+     * shown by that notification. Changes of the filters, sort order, page or selection are shown right away, together
+     * with pending item modifications.
+     *
+     * @param interval  the minimal interval between two notifications in milliseconds or 0 to show item modifications
+     *                  right away
+     * @param scheduler runs the notifications, can be {@code null} if {@code interval} is 0
+     */
+    public void setThrottle(int interval, Scheduler scheduler) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Illegal interval: " + interval);
+        }
+        if (interval > 0 && scheduler == null) {
+            throw new IllegalArgumentException("Throttling needs a scheduler");
+        }
+        this.throttle = interval;
+        this.scheduler = scheduler;
+        if (interval == 0 && throttled) {
+            updateVisible();
+        }
     }
 
     // ------------------------------------------------------ selection
 
+    @Override
     public void onSelect(SelectHandler<T> selectHandler) {
         this.selectHandler.add(selectHandler);
     }
 
     /**
-     * Selects all items if {@code multiSelect == true}. Does not fire selection events
+     * Selects all items matching the current filters. Does not fire selection events.
+     *
+     * <p>
+     * The selection is stored as "all items except the deselected ones", so selecting all items does not depend on the
+     * number of items.
+     * </p>
      */
+    @Override
     public void selectAll() {
-        selectionInfo.reset();
-        filteredItems.forEach((id, item) -> selectInternal(id, item, true));
+        selectionInfo.selectAll();
         updateSelection();
     }
 
     /**
      * Selects all visible items if {@code multiSelect == true}. Does not fire selection events
      */
+    @Override
     public void selectVisible() {
         selectionInfo.reset();
-        visibleItems.forEach((id, item) -> selectInternal(id, item, true));
+        selectRange(visibleFrom, visibleTo, true);
         updateSelection();
     }
 
     /**
      * Clears the selection for all items
      */
+    @Override
     public void clearAllSelection() {
         if (selectionInfo.hasSelection()) {
             selectionInfo.reset();
-            filteredItems.forEach((id, item) -> selectInternal(id, item, false));
             updateSelection();
         }
     }
@@ -163,34 +455,48 @@ public class DataProvider<T> {
     /**
      * Clears the selection for all visible items
      */
+    @Override
     public void clearVisibleSelection() {
         if (selectionInfo.hasSelection()) {
             selectionInfo.reset();
-            visibleItems.forEach((id, item) -> selectInternal(id, item, false));
+            selectRange(visibleFrom, visibleTo, false);
             updateSelection();
         }
     }
 
     /**
-     * (De)selects the specified item and fires a selection event if {@code select == true}
+     * (De)selects the specified item and fires a selection event if {@code select == true}. Items which are not part
+     * of this data provider are ignored: they are neither selected nor is a selection event fired.
      */
+    @Override
     public void select(T item, boolean select) {
-        selectInternal(getId(item), item, select);
+        int ordinal = ordinal(item);
+        if (ordinal < 0) {
+            return;
+        }
+        selectInternal(ordinal, select);
         if (select) {
             fireSelection(item);
         }
         updateSelection();
     }
 
+    @Override
     public SelectionInfo<T> getSelectionInfo() {
         return selectionInfo;
     }
 
-    private void selectInternal(String id, T item, boolean select) {
+    private void selectRange(int from, int to, boolean select) {
+        for (int i = from; i < min(to, filteredItems.size()); i++) {
+            selectInternal(filteredItems.get(i), select);
+        }
+    }
+
+    private void selectInternal(int ordinal, boolean select) {
         if (select) {
-            selectionInfo.add(id, item);
+            selectionInfo.select(ordinal);
         } else {
-            selectionInfo.remove(id);
+            selectionInfo.deselect(ordinal);
         }
     }
 
@@ -201,25 +507,147 @@ public class DataProvider<T> {
     }
 
     private void updateSelection() {
+        if (batchDepth > 0) {
+            pendingSelection = true;
+            return;
+        }
         for (Display<T> display : displays) {
             display.updateSelection(selectionInfo);
         }
+        selectionInfo.clearChanges();
     }
 
     // ------------------------------------------------------ filter
 
+    /**
+     * Adds or replaces the filter with the specified id. Only the new filter is evaluated. The results of the other
+     * filters are cached per item.
+     *
+     * <p>
+     * Filters are evaluated lazily in the order of their cost and selectivity: cheap filters which reject many items
+     * run first, expensive filters only run for the remaining items. Use {@link #getFilterStats()} to see the order.
+     * </p>
+     */
     public void addFilter(String id, Predicate<T> filter) {
-        filters.put(id, filter);
+        addFilter(id, filter, 0);
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id using a cost hint. The hint is used to order the filters until
+     * the cost of the filter has been measured.
+     *
+     * @param costHint estimated cost of one evaluation in nanoseconds, e.g. 50 for a field comparison or 5000 for a
+     *                 regular expression
+     */
+    public void addFilter(String id, Predicate<T> filter, double costHint) {
+        filters.add(id, filter, costHint);
+        internalUpdate();
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id. The value is the input the predicate has been created from
+     * (e.g. a search term). It's not used by this data provider, but by data providers which filter the items on the
+     * server like the {@link RemoteDataProvider}.
+     */
+    @Override
+    public void addFilter(String id, String value, Predicate<T> filter) {
+        addFilter(id, filter);
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id. The filter is compiled to a predicate using the fields. Its
+     * {@linkplain Filter#toString() string representation} is used as value.
+     */
+    @Override
+    public void addFilter(String id, Filter filter, Fields<T> fields) {
+        addFilter(id, filter.toString(), fields.predicate(filter));
+    }
+
+    /**
+     * Declares a numeric attribute which can be used in {@linkplain #addRangeFilter(String, String, double, double)
+     * range filters}. The data provider keeps the items sorted by the attribute, so that range filters are answered by
+     * a binary search instead of testing each item. Dates can be indexed by their time in milliseconds.
+     *
+     * @throws IllegalStateException if the attribute has already been declared
+     */
+    public void addRangeIndex(String attribute, ToDoubleFunction<T> value) {
+        if (rangeIndexes.containsKey(attribute)) {
+            throw new IllegalStateException("Range index '" + attribute + "' already exists");
+        }
+        rangeIndexes.put(attribute, new RangeIndex<>(allItems, value)); // built by the first range filter
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id which matches all items with {@code from <= attribute <= to}.
+     * Use {@link Double#NEGATIVE_INFINITY} or {@link Double#POSITIVE_INFINITY} for open ranges, e.g. for the last 15
+     * minutes:
+     *
+     * <pre>
+     * dataProvider.addRangeFilter("recent", "timestamp", now - 15 * 60 * 1000, Double.POSITIVE_INFINITY);
+     * </pre>
+     *
+     * @throws IllegalArgumentException if there's no {@linkplain #addRangeIndex(String, ToDoubleFunction) range
+     *                                  index} for the attribute
+     */
+    @Override
+    public void addRangeFilter(String id, String attribute, double from, double to) {
+        RangeIndex<T> index = rangeIndexes.get(attribute);
+        if (index == null) {
+            throw new IllegalArgumentException("No range index for '" + attribute + "'");
+        }
+        Predicate<T> predicate = item -> {
+            double value = index.value(item);
+            return Double.compare(value, from) >= 0 && Double.compare(value, to) <= 0;
+        };
+        filters.add(id, predicate, 0, matches -> index.query(from, to, matches));
+        internalUpdate();
+    }
+
+    /**
+     * Declares a full text index over the specified text fields which can be used in {@linkplain
+     * #addTextFilter(String, String, String) text filters}. The data provider keeps an inverted trigram index of the
+     * fields, so that text filters look up the items containing the query instead of testing each item.
+     *
+     * @throws IllegalStateException if the index has already been declared
+     */
+    public void addTextIndex(String index, List<Function<T, String>> fields) {
+        if (textIndexes.containsKey(index)) {
+            throw new IllegalStateException("Text index '" + index + "' already exists");
+        }
+        textIndexes.put(index, new TextIndex<>(allItems, fields)); // built by the first text filter
+    }
+
+    public void addTextIndex(String index, Function<T, String> field) {
+        addTextIndex(index, Collections.singletonList(field));
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id which matches all items where one of the fields of the text
+     * index contains the query, ignoring case.
+     *
+     * @throws IllegalArgumentException if there's no {@linkplain #addTextIndex(String, List) text index} with the
+     *                                  specified name
+     */
+    @Override
+    public void addTextFilter(String id, String index, String query) {
+        TextIndex<T> textIndex = textIndexes.get(index);
+        if (textIndex == null) {
+            throw new IllegalArgumentException("No text index '" + index + "'");
+        }
+        String lowerQuery = query.toLowerCase();
+        filters.add(id, item -> textIndex.matches(item, lowerQuery), 0,
+                matches -> textIndex.query(lowerQuery, matches));
         internalUpdate();
     }
 
+    @Override
     public void removeFilter(String id) {
-        if (filters.containsKey(id)) {
-            filters.remove(id);
+        if (filters.remove(id)) {
             internalUpdate();
         }
     }
 
+    @Override
     public void clearFilters() {
         if (!filters.isEmpty()) {
             filters.clear();
@@ -227,179 +655,758 @@ public class DataProvider<T> {
         }
     }
 
+    @Override
     public boolean hasFilters() {
         return !filters.isEmpty();
     }
 
+    /**
+     * Returns diagnostic information about the filters in the order they're evaluated: evaluations, pass rate and
+     * cost.
+     */
+    public List<FilterStats> getFilterStats() {
+        return filters.stats();
+    }
+
+    // ------------------------------------------------------ facets
+
+    /**
+     * Declares a facet which counts the items per key, e.g. the number of items per status. The counted items are the
+     * items which match all filters except the filter with the same id as the facet, so that the counts show how many
+     * items each option of this filter would match:
+     *
+     * <pre>
+     * dataProvider.addFacet("status", Server::getStatus);
+     * dataProvider.addFilter("status", server -&gt; server.getStatus().equals("running"));
+     * dataProvider.getFacetCounts("status"); // {running=1203, stopped=12}
+     * </pre>
+     *
+     * <p>
+     * The counts are updated incrementally when items or filters change. Displays are notified using {@link
+     * Display#updateFacetCounts(String, Map)}.
+     * </p>
+     */
+    public void addFacet(String id, Function<T, String> key) {
+        facets.put(id, new Facet<>(id, key));
+        internalUpdate();
+    }
+
+    public void removeFacet(String id) {
+        facets.remove(id);
+    }
+
+    /**
+     * Returns the number of items per key of the specified facet. Keys without items are not included. Returns an empty
+     * map if there's no such facet.
+     */
+    public Map<String, Integer> getFacetCounts(String id) {
+        Facet<T> facet = facets.get(id);
+        return facet != null ? facet.counts() : Collections.emptyMap();
+    }
+
+    // ------------------------------------------------------ aggregates
+
+    /**
+     * Declares an aggregate of a numeric value over the filtered items: count, sum, average, minimum and maximum. The
+     * aggregate is updated incrementally when items are added, removed or replaced and when filters change. Displays
+     * are notified using {@link Display#updateAggregate(Aggregate)}.
+     */
+    public void addAggregate(String id, ToDoubleFunction<T> value) {
+        aggregations.put(id, new Aggregation<>(id, value));
+        internalUpdate();
+    }
+
+    public void removeAggregate(String id) {
+        aggregations.remove(id);
+    }
+
+    /** Returns the specified aggregate or {@code null} if there's no such aggregate. */
+    @Override
+    public Aggregate getAggregate(String id) {
+        Aggregation<T> aggregation = aggregations.get(id);
+        return aggregation != null ? aggregation.aggregate() : null;
+    }
+
     // ------------------------------------------------------ sort
 
+    /**
+     * Sorts all items. The sort order is kept when items are added, removed or replaced and when filters are changed.
+     */
+    @Override
     public void sort(SortInfo<T> sortInfo) {
         this.sortInfo = sortInfo;
+        this.position = sortedItems.comparator(sortInfo.getComparator());
+        this.sorted = false;
         internalUpdate();
     }
 
+    /**
+     * Sorts all items by the specified sort keys. The sort is compiled to a comparator using the fields. Its
+     * {@linkplain Sort#toString() string representation} is used as id of the {@link SortInfo}.
+     */
+    @Override
+    public void sort(Sort sort, Fields<T> fields) {
+        sort(new SortInfo<>(sort.toString(), fields.comparator(sort), true));
+    }
+
     // ------------------------------------------------------ paging
 
+    @Override
     public void setPageSize(int pageSize) {
         int oldPageSize = pageInfo.getPageSize();
         pageInfo.setPageSize(pageSize);
         if (oldPageSize != pageInfo.getPageSize()) {
-            internalUpdate();
+            updateVisible();
         }
     }
 
+    @Override
     public void gotoFirstPage() {
         gotoPage(0);
     }
 
+    @Override
     public void gotoPreviousPage() {
-        gotoPage(pageInfo.getPage() - 1);
+        gotoPage(currentPage() - 1);
     }
 
+    @Override
     public void gotoNextPage() {
-        gotoPage(pageInfo.getPage() + 1);
+        gotoPage(currentPage() + 1);
     }
 
+    @Override
     public void gotoLastPage() {
         gotoPage(pageInfo.getPages() - 1);
     }
 
+    @Override
     public void gotoPage(int page) {
-        int oldPage = pageInfo.getPage();
-        pageInfo.setPage(page);
-        if (oldPage != pageInfo.getPage()) {
-            internalUpdate();
+        if (batchDepth > 0) {
+            // the number of pages is known after the batch has been closed
+            pendingPage = page;
+            pendingVisible = true;
+        } else {
+            int oldPage = pageInfo.getPage();
+            pageInfo.setPage(page);
+            if (oldPage != pageInfo.getPage()) {
+                updateVisible();
+            }
         }
     }
 
-    private List<T> paged(List<T> values) {
-        List<List<T>> pages = partition(values, pageInfo.getPageSize());
-        return pages.get(min(pageInfo.getPage(), pages.size() - 1));
+    private int currentPage() {
+        return pendingPage >= 0 ? pendingPage : pageInfo.getPage();
     }
 
-    private List<List<T>> partition(List<T> list, int size) {
-        if (list != null) {
-            if (size > 0) {
-                return new Partition<>(list, size);
-            }
+    // ------------------------------------------------------ batch
+
+    /**
+     * Applies all modifications made by the consumer in one batch. Items are filtered, sorted and shown only once after
+     * the consumer returns.
+     */
+    public void batch(Consumer<DataProvider<T>> modifications) {
+        beginUpdate();
+        try {
+            modifications.accept(this);
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * Starts a batch. Filtering, sorting and notifying the displays is deferred until the outermost batch is closed
+     * using {@link #endUpdate()}. Batches can be nested.
+     */
+    @Override
+    public void beginUpdate() {
+        batchDepth++;
+    }
+
+    /**
+     * Closes a batch started with {@link #beginUpdate()}. Closing the outermost batch applies all deferred
+     * modifications.
+     */
+    @Override
+    public void endUpdate() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("endUpdate() without beginUpdate()");
+        }
+        batchDepth--;
+        if (batchDepth == 0) {
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isUpdating() {
+        return batchDepth > 0;
+    }
+
+    private void flush() {
+        boolean update = pendingUpdate;
+        boolean visible = pendingVisible;
+        boolean selection = pendingSelection;
+        pendingUpdate = false;
+        pendingVisible = false;
+        pendingSelection = false;
+        if (update) {
+            internalUpdate();
+        } else if (visible) {
+            updateVisible();
+        } else if (selection) {
+            updateSelection();
         }
-        return emptyList();
     }
 
     // ------------------------------------------------------ displays
 
+    @Override
     public void addDisplay(Display<T> display) {
         displays.add(display);
+        shownCount = -1; // the new display has to show all items
     }
 
     // ------------------------------------------------------ internal state
 
+    /** Resets filters, sort order and all state which depends on the items. */
     private void reset() {
-        allItems.clear();
         filters.clear();
+        sortInfo.reset();
+        position = sortedItems.comparator(null);
+        itemsReplaced();
+    }
+
+    /** Resets the state which depends on the items, because all items have been replaced. */
+    private void itemsReplaced() {
+        for (RangeIndex<T> index : rangeIndexes.values()) {
+            index.invalidate();
+        }
+        for (TextIndex<T> index : textIndexes.values()) {
+            index.invalidate();
+        }
+        for (Facet<T> facet : facets.values()) {
+            facet.clear();
+        }
+        for (Aggregation<T> aggregation : aggregations.values()) {
+            aggregation.clear();
+        }
+        filters.invalidate();
         pageInfo.reset();
         selectionInfo.reset();
-        sortInfo.reset();
+        sorted = false;
+        partial = false;
+        pendingPage = -1;
+        shownCount = -1;
     }
 
-    private void internalUpdate() {
-        // set items
-        Stream<T> stream = allItems.values().stream();
-        if (!filters.isEmpty()) {
-            Predicate<T> predicate = null;
-            for (Predicate<T> p : filters.values()) {
-                if (predicate == null) {
-                    predicate = p;
-                } else {
-                    predicate = predicate.and(p);
-                }
+    /** Returns the ordinal of the item (looked up by identity first and then by id) or -1 */
+    private int ordinal(T item) {
+        int ordinal = allItems.identityOrdinal(item);
+        return ordinal >= 0 ? ordinal : allItems.ordinal(identifier.apply(item));
+    }
+
+    private void store(T item) {
+        String id = getId(item);
+        if (capacity > 0 && allItems.size() >= capacity && allItems.ordinal(id) < 0) {
+            allItems.remove(allItems.id(allItems.oldest())); // the indexes are rebuilt after the update
+        }
+        allItems.add(id, item);
+    }
+
+    private boolean addInternal(T item) {
+        prepareModification();
+        String id = getId(item);
+        int ordinal = allItems.ordinal(id);
+        if (ordinal >= 0) {
+            return replaceInternal(ordinal, item);
+        }
+        if (capacity > 0) {
+            while (allItems.size() >= capacity) {
+                evictOldest();
             }
-            stream = stream.filter(predicate);
         }
-        if (sortInfo.getComparator() != null) {
-            stream = stream.sorted(sortInfo.getComparator());
+        ordinal = allItems.add(id, item);
+        attach(ordinal, item);
+        for (DataProvider<T> view : views) {
+            view.attach(ordinal, item);
         }
-        List<T> values = stream.collect(toList());
-        if (values.size() > pageInfo.getPageSize()) {
-            filteredItems = values.stream().collect(toLinkedMap(identifier, identity()));
-            values = paged(values);
-            visibleItems = values.stream().collect(toLinkedMap(identifier, identity()));
-        } else {
-            filteredItems = visibleItems = values.stream().collect(toLinkedMap(identifier, identity()));
+        return true;
+    }
+
+    private boolean removeInternal(T item) {
+        prepareModification();
+        int ordinal = allItems.ordinal(getId(item));
+        if (ordinal >= 0) {
+            removeInternal(ordinal);
+            return true;
         }
-        pageInfo.setTotal(filteredItems.size()); // total first!
-        pageInfo.setVisible(visibleItems.size());
+        return false;
+    }
 
-        // notify displays
-        for (Display<T> display : displays) {
-            display.showItems(visibleItems.values(), pageInfo);
-            display.updateSelection(selectionInfo);
-            display.updateSortInfo(sortInfo);
+    private void removeInternal(int ordinal) {
+        detach(ordinal);
+        for (DataProvider<T> view : views) {
+            view.detach(ordinal);
+        }
+        allItems.remove(allItems.id(ordinal));
+        discard(ordinal);
+        for (DataProvider<T> view : views) {
+            view.discard(ordinal);
         }
     }
 
-    private Collector<T, ?, Map<String, T>> toLinkedMap(Function<? super T, ? extends String> keyMapper,
-            Function<? super T, ? extends T> valueMapper) {
-        return toMap(keyMapper, valueMapper,
-                (u, v) -> {
-                    throw new IllegalStateException("Duplicate key " + u); //NON-NLS
-                },
-                LinkedHashMap::new);
+    /**
+     * Removes the oldest item. The oldest item is usually the first or last of the sorted and filtered items, which
+     * are removed without moving the remaining ordinals.
+     */
+    private void evictOldest() {
+        int ordinal = allItems.oldest();
+        if (ordinal >= 0) {
+            removeInternal(ordinal);
+        }
     }
 
-    // ------------------------------------------------------ inner classes
+    private boolean replaceInternal(T item) {
+        prepareModification();
+        String id = getId(item);
+        int ordinal = allItems.ordinal(id);
+        return ordinal >= 0 && replaceInternal(ordinal, item);
+    }
+
+    private boolean replaceInternal(int ordinal, T item) {
+        detach(ordinal);
+        for (DataProvider<T> view : views) {
+            view.detach(ordinal);
+        }
+        allItems.set(ordinal, item); // keeps the ordinal and insertion order
+        attach(ordinal, item);
+        for (DataProvider<T> view : views) {
+            view.attach(ordinal, item);
+        }
+        return true;
+    }
+
+    /**
+     * Sorts all items of this data provider and its views if only the items up to the current page have been sorted.
+     * Must be called before an item is added, removed or replaced.
+     */
+    private void prepareModification() {
+        ensureSorted();
+        for (DataProvider<T> view : views) {
+            view.ensureSorted();
+        }
+    }
 
+    /**
+     * Removes an item from the sorted and filtered items, the indexes, facets and aggregates. Must be called before
+     * the item is removed from or replaced in the store.
+     */
+    private void detach(int ordinal) {
+        filteredItems.remove(ordinal, position);
+        if (sorted) {
+            sortedItems.remove(ordinal);
+        }
+        removeFromIndexes(ordinal);
+    }
 
-    private static class Partition<T> extends AbstractList<List<T>> {
+    /**
+     * Adds an item which has been added to or replaced in the store to the sorted and filtered items, the indexes,
+     * facets and aggregates. Only this item is filtered and sorted.
+     */
+    private void attach(int ordinal, T item) {
+        sortedItems.invalidate(ordinal);
+        if (sorted) {
+            sortedItems.insert(ordinal);
+        }
+        addToIndexes(ordinal, item);
+        boolean matches = evaluate(ordinal, item);
+        matching.set(ordinal, matches);
+        if (matches) {
+            filteredItems.insert(ordinal, position);
+        }
+        summarize(ordinal, item);
+    }
 
-        final List<T> list;
-        final int size;
+    /** Forgets the state of an item which has been removed from the store. */
+    private void discard(int ordinal) {
+        matching.clear(ordinal);
+        selectionInfo.discard(ordinal);
+    }
 
-        Partition(List<T> list, int size) {
-            this.list = list;
-            this.size = size;
+    /** Updates the range and text indexes for an item which has been added or replaced. */
+    private void addToIndexes(int ordinal, T item) {
+        for (RangeIndex<T> index : rangeIndexes.values()) {
+            index.add(ordinal, item);
+        }
+        for (TextIndex<T> index : textIndexes.values()) {
+            index.add(ordinal, item);
         }
+    }
 
-        @Override
-        public List<T> get(int index) {
-            checkElementIndex(index, size());
-            int start = index * size;
-            int end = Math.min(start + size, list.size());
-            return list.subList(start, end);
+    /**
+     * Removes an item from the range and text indexes, the facet counts and the aggregates. Must be called before the
+     * item is removed from or replaced in the store.
+     */
+    private void removeFromIndexes(int ordinal) {
+        for (RangeIndex<T> index : rangeIndexes.values()) {
+            index.remove(ordinal);
+        }
+        for (TextIndex<T> index : textIndexes.values()) {
+            index.remove(ordinal);
+        }
+        for (Facet<T> facet : facets.values()) {
+            facet.exclude(ordinal);
+        }
+        for (Aggregation<T> aggregation : aggregations.values()) {
+            aggregation.exclude(ordinal);
+        }
+    }
+
+    /** Adds an item which has been added or replaced to the facets and aggregates it belongs to. */
+    private void summarize(int ordinal, T item) {
+        for (Facet<T> facet : facets.values()) {
+            if (filters.passesExcept(facet.id, ordinal, item)) {
+                facet.include(ordinal, item);
+            }
         }
+        if (matching.get(ordinal)) {
+            for (Aggregation<T> aggregation : aggregations.values()) {
+                aggregation.include(ordinal, item);
+            }
+        }
+    }
 
-        @Override
-        public int size() {
-            return divide(list.size(), size);
+    /** Updates all facets and aggregates after the filters have been applied. */
+    private void summarize() {
+        for (Facet<T> facet : facets.values()) {
+            if (filters.contains(facet.id)) {
+                // the items rejected only by the own filter are counted as well
+                facetItems.copyFrom(allItems.live());
+                filters.applyExcept(facet.id, facetItems, allItems);
+            } else {
+                facetItems.copyFrom(matching);
+            }
+            facet.update(facetItems, allItems);
+        }
+        for (Aggregation<T> aggregation : aggregations.values()) {
+            aggregation.update(matching, allItems);
         }
+    }
 
-        @Override
-        public boolean isEmpty() {
-            return list.isEmpty();
+    /**
+     * Evaluates all filters for the specified item, updates the cached results and returns whether the item matches
+     * all filters.
+     */
+    private boolean evaluate(int ordinal, T item) {
+        return filters.evaluate(ordinal, item);
+    }
+
+    private void internalUpdate() {
+        if (batchDepth > 0) {
+            pendingUpdate = true;
+            return;
+        }
+
+        filterAndSort(false);
+        summarize();
+        updateVisible();
+    }
+
+    private void filterAndSort(boolean fullOrder) {
+        partial = false;
+        matching.copyFrom(allItems.live());
+        filters.apply(matching, allItems);
+
+        if (!sorted && !fullOrder && sortInfo.getComparator() != null) {
+            // the sort order has changed: sort only the items up to the current page if possible
+            int count = 0;
+            int[] candidates = new int[allItems.size()];
+            for (int ordinal : allItems.ordinals()) {
+                if (matching.get(ordinal)) {
+                    candidates[count++] = ordinal;
+                }
+            }
+            int pageEnd = (currentPage() + 1) * pageInfo.getPageSize();
+            if ((long) pageEnd * PARTIAL_SORT_RATIO <= count) {
+                int[] top = SortedIndex.top(candidates, count, pageEnd, position);
+                filteredItems.set(top, top.length);
+                partial = true;
+                partialTotal = count;
+                return;
+            }
+        }
+
+        // sort all items (only if the sort order has changed)
+        if (!sorted) {
+            sortedItems.rebuild(sortInfo.getComparator());
+            sorted = true;
+        }
+
+        // filter the sorted items using the cached filter results
+        filteredItems.clear();
+        for (int i = 0; i < sortedItems.size(); i++) {
+            int ordinal = sortedItems.get(i);
+            if (matching.get(ordinal)) {
+                filteredItems.add(ordinal);
+            }
+        }
+    }
+
+    private int filteredCount() {
+        return partial ? partialTotal : filteredItems.size();
+    }
+
+    /** Sorts all items if only the items up to the current page have been sorted. */
+    private void ensureSorted() {
+        if (partial) {
+            filterAndSort(true);
+        }
+    }
+
+    /**
+     * Shows modified items right away or schedules a notification if the notifications are throttled. Does the same
+     * for all views.
+     */
+    private void itemsModified() {
+        if (throttle > 0 && batchDepth == 0) {
+            throttled = true;
+            if (!scheduled) {
+                scheduled = true;
+                scheduler.schedule(this::throttledUpdate, throttle);
+            }
+        } else {
+            updateVisible();
+        }
+        for (DataProvider<T> view : views) {
+            view.itemsModified();
+        }
+    }
+
+    private void throttledUpdate() {
+        scheduled = false;
+        if (throttled) {
+            updateVisible();
+        }
+    }
+
+    private void updateVisible() {
+        if (batchDepth > 0) {
+            pendingVisible = true;
+            return;
         }
+        throttled = false;
 
-        private void checkElementIndex(int index, int size) {
-            if (index < 0) {
-                throw new IndexOutOfBoundsException("Index " + index + " must not be negative");
-            } else if (index >= size) {
-                throw new IndexOutOfBoundsException("Index (" + index + ") must be less than size (" + size + ")");
+        pageInfo.setTotal(filteredCount()); // total first!
+        if (pendingPage >= 0) {
+            pageInfo.setPage(pendingPage);
+            pendingPage = -1;
+        }
+        int from = pageInfo.getPage() * pageInfo.getPageSize();
+        int to = min(from + pageInfo.getPageSize(), pageInfo.getTotal());
+        if (partial && to > filteredItems.size()) {
+            ensureSorted();
+        }
+        visibleFrom = from;
+        visibleTo = to;
+        pageInfo.setVisible(to - from);
+
+        // notify displays
+        if (!displays.isEmpty()) {
+            DisplayChanges<T> changes = diff();
+            if (changes == null) {
+                selectionInfo.markAllChanged(); // the displays rebuild all rows
+            }
+            for (Display<T> display : displays) {
+                if (changes != null) {
+                    display.updateItems(changes);
+                } else {
+                    display.showItems(visibleView, pageInfo);
+                }
+                display.updateSelection(selectionInfo);
+                display.updateSortInfo(sortInfo);
+            }
+            for (Facet<T> facet : facets.values()) {
+                if (facet.changed()) {
+                    for (Display<T> display : displays) {
+                        display.updateFacetCounts(facet.id, facet.counts());
+                    }
+                }
+            }
+            for (Aggregation<T> aggregation : aggregations.values()) {
+                if (aggregation.changed()) {
+                    for (Display<T> display : displays) {
+                        display.updateAggregate(aggregation.aggregate());
+                    }
+                }
+            }
+            selectionInfo.clearChanges();
+            rememberShown();
+        }
+    }
+
+    /**
+     * Computes the changes which turn the items shown by the displays into the visible items. Returns {@code null} if
+     * the displays should show all visible items, because nothing has been shown so far or because most of the visible
+     * items have changed (e.g. after switching the page).
+     */
+    @SuppressWarnings("unchecked")
+    private DisplayChanges<T> diff() {
+        if (shownCount < 0) {
+            return null;
+        }
+        int count = visibleTo - visibleFrom;
+        int bound = allItems.length();
+        for (int i = 0; i < shownCount; i++) {
+            bound = max(bound, shownOrdinals[i] + 1);
+        }
+        if (visiblePositions.length < bound) {
+            visiblePositions = new int[bound];
+            shownPositions = new int[bound];
+        }
+        if (visibleSequence.length < count) {
+            visibleSequence = new int[count];
+        }
+        if (remainingSequence.length < shownCount) {
+            remainingSequence = new int[shownCount];
+        }
+        for (int i = 0; i < shownCount; i++) {
+            shownPositions[shownOrdinals[i]] = i + 1;
+        }
+        for (int i = 0; i < count; i++) {
+            int ordinal = filteredItems.get(visibleFrom + i);
+            visibleSequence[i] = allItems.sequence(ordinal);
+            visiblePositions[ordinal] = i + 1;
+        }
+        int[] sequence = visibleSequence;
+        int[] current = remainingSequence;
+        DisplayChanges<T> changes = new DisplayChanges<>(visibleView, pageInfo);
+
+        // remove from the end, so that the indexes of the remaining items don't change
+        for (int i = shownCount - 1; i >= 0; i--) {
+            if (visibleIndex(i) < 0) {
+                changes.remove(i, (T) shownItems[i]);
             }
         }
 
-        private static int divide(int p, int q) {
-            if (q == 0) {
-                throw new ArithmeticException("/ by zero");
+        // move the remaining items into their new order
+        int remaining = 0;
+        for (int i = 0; i < shownCount; i++) {
+            if (visibleIndex(i) >= 0) {
+                current[remaining++] = shownSequence[i];
+            }
+        }
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            if (shownIndex(i) >= 0) {
+                if (current[position] != sequence[i]) {
+                    int from = position + 1;
+                    while (current[from] != sequence[i]) {
+                        from++;
+                    }
+                    System.arraycopy(current, position, current, position + 1, from - position);
+                    current[position] = sequence[i];
+                    changes.move(from, position, visibleItem(i));
+                }
+                position++;
             }
+        }
 
-            int div = p / q;
-            int rem = p - q * div; // equal to p % q
-            if (rem == 0) {
-                return div;
+        // insert new and update replaced items in ascending order
+        for (int i = 0; i < count; i++) {
+            int oldIndex = shownIndex(i);
+            T item = visibleItem(i);
+            if (oldIndex < 0) {
+                changes.insert(i, item);
+                selectionInfo.markChanged(filteredItems.get(visibleFrom + i));
+            } else if (item != shownItems[oldIndex]) {
+                changes.update(i, item);
+                selectionInfo.markChanged(filteredItems.get(visibleFrom + i));
             }
+        }
+
+        for (int i = 0; i < shownCount; i++) {
+            shownPositions[shownOrdinals[i]] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            visiblePositions[filteredItems.get(visibleFrom + i)] = 0;
+        }
+        return 2 * changes.size() > max(count, shownCount) ? null : changes;
+    }
+
+    /**
+     * Returns the visible index of the shown item or -1 if it's no longer visible. Ordinals are reused, so the sequence
+     * number has to match as well.
+     */
+    private int visibleIndex(int shownIndex) {
+        int index = visiblePositions[shownOrdinals[shownIndex]] - 1;
+        return index >= 0 && visibleSequence[index] == shownSequence[shownIndex] ? index : -1;
+    }
 
-            int signum = 1 | ((p ^ q) >> (Integer.SIZE - 1));
-            boolean increment = signum > 0;
-            return increment ? div + signum : div;
+    /** Returns the shown index of the visible item or -1 if it hasn't been shown. */
+    private int shownIndex(int visibleIndex) {
+        int index = shownPositions[filteredItems.get(visibleFrom + visibleIndex)] - 1;
+        return index >= 0 && shownSequence[index] == visibleSequence[visibleIndex] ? index : -1;
+    }
+
+    private T visibleItem(int index) {
+        return allItems.get(filteredItems.get(visibleFrom + index));
+    }
+
+    private void rememberShown() {
+        int count = visibleTo - visibleFrom;
+        if (shownSequence.length < count) {
+            shownSequence = new int[count];
+            shownOrdinals = new int[count];
+            shownItems = new Object[count];
+        }
+        for (int i = 0; i < count; i++) {
+            int ordinal = filteredItems.get(visibleFrom + i);
+            shownSequence[i] = allItems.sequence(ordinal);
+            shownOrdinals[i] = ordinal;
+            shownItems[i] = allItems.get(ordinal);
+        }
+        for (int i = count; i < shownCount; i++) {
+            shownItems[i] = null;
+        }
+        shownCount = count;
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    /**
+     * Live view of the filtered or visible items. The items are looked up by ordinal while iterating. No copies or maps
+     * are created.
+     */
+    private class FilteredItems implements Iterable<T> {
+
+        private final boolean visibleOnly;
+
+        FilteredItems(boolean visibleOnly) {
+            this.visibleOnly = visibleOnly;
+        }
+
+        @Override
+        @SuppressWarnings("NullableProblems")
+        public Iterator<T> iterator() {
+            int from = visibleOnly ? visibleFrom : 0;
+            int to = visibleOnly ? min(visibleTo, filteredItems.size()) : filteredItems.size();
+            return new Iterator<T>() {
+                private int index = from;
+
+                @Override
+                public boolean hasNext() {
+                    return index < to;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return allItems.get(filteredItems.get(index++));
+                }
+            };
         }
     }
 }
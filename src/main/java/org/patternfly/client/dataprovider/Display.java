@@ -15,14 +15,51 @@
  */
 package org.patternfly.client.dataprovider;
 
+import java.util.Map;
+
 /**
- * Displays items managed by a {@link DataProvider}
+ * Displays items managed by an {@link ItemProvider}
  */
 public interface Display<T> {
 
     void showItems(Iterable<T> items, PageInfo pageInfo);
 
+    /**
+     * Called instead of {@link #showItems(Iterable, PageInfo)} if only some of the visible items have been inserted,
+     * removed, moved or updated. The default implementation shows all visible items.
+     */
+    default void updateItems(DisplayChanges<T> changes) {
+        showItems(changes.getVisibleItems(), changes.getPageInfo());
+    }
+
+    /**
+     * Called if only the page info has changed, e.g. if the exact total has been counted after the items have been
+     * shown. The visible items are unchanged. The default implementation does nothing.
+     */
+    default void updatePageInfo(PageInfo pageInfo) {
+    }
+
+    /**
+     * Updates the selection. Use {@link SelectionInfo#isAllChanged()} and {@link SelectionInfo#getChangedItems()} to
+     * update only the items whose selection state has changed.
+     */
     void updateSelection(SelectionInfo<T> selectionInfo);
 
     void updateSortInfo(SortInfo<T> sortInfo);
+
+    /**
+     * Called if the counts of a facet have changed. See {@link DataProvider#addFacet(String,
+     * java.util.function.Function)}. The default implementation does nothing.
+     *
+     * @param counts the number of items per key
+     */
+    default void updateFacetCounts(String facet, Map<String, Integer> counts) {
+    }
+
+    /**
+     * Called if an aggregate has changed. See {@link DataProvider#addAggregate(String,
+     * java.util.function.ToDoubleFunction)}. The default implementation does nothing.
+     */
+    default void updateAggregate(Aggregate aggregate) {
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Arrays;
+
+/**
+ * Describes how to turn the items shown by a {@link Display} into the currently visible items. Passed to {@link
+ * Display#updateItems(DisplayChanges)}.
+ *
+ * <p>
+ * The changes have to be applied in order. Indexes refer to the items shown by the display at the time the change is
+ * applied:
+ * </p>
+ * <ul>
+ * <li>{@link Kind#REMOVE}: remove the item at {@link #index(int)}</li>
+ * <li>{@link Kind#MOVE}: move the item at {@link #index(int)} to {@link #toIndex(int)}</li>
+ * <li>{@link Kind#INSERT}: insert {@link #item(int)} at {@link #index(int)}</li>
+ * <li>{@link Kind#UPDATE}: replace the item at {@link #index(int)} with {@link #item(int)}</li>
+ * </ul>
+ */
+public class DisplayChanges<T> {
+
+    public enum Kind {
+        INSERT, REMOVE, MOVE, UPDATE
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Iterable<T> visibleItems;
+    private final PageInfo pageInfo;
+    private Kind[] kinds;
+    private int[] indexes;
+    private int[] toIndexes;
+    private Object[] items;
+    private int size;
+
+    DisplayChanges(Iterable<T> visibleItems, PageInfo pageInfo) {
+        this.visibleItems = visibleItems;
+        this.pageInfo = pageInfo;
+        this.kinds = new Kind[INITIAL_CAPACITY];
+        this.indexes = new int[INITIAL_CAPACITY];
+        this.toIndexes = new int[INITIAL_CAPACITY];
+        this.items = new Object[INITIAL_CAPACITY];
+    }
+
+    void insert(int index, T item) {
+        record(Kind.INSERT, index, index, item);
+    }
+
+    void remove(int index, T item) {
+        record(Kind.REMOVE, index, index, item);
+    }
+
+    void move(int from, int to, T item) {
+        record(Kind.MOVE, from, to, item);
+    }
+
+    void update(int index, T item) {
+        record(Kind.UPDATE, index, index, item);
+    }
+
+    @Override
+    public String toString() {
+        return "DisplayChanges(" + size + ')';
+    }
+
+    /** The visible items after all changes have been applied. */
+    public Iterable<T> getVisibleItems() {
+        return visibleItems;
+    }
+
+    public PageInfo getPageInfo() {
+        return pageInfo;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Kind kind(int change) {
+        checkChange(change);
+        return kinds[change];
+    }
+
+    public int index(int change) {
+        checkChange(change);
+        return indexes[change];
+    }
+
+    /** The target index of a {@link Kind#MOVE} change. Same as {@link #index(int)} for other changes. */
+    public int toIndex(int change) {
+        checkChange(change);
+        return toIndexes[change];
+    }
+
+    /** The inserted, removed, moved or updated item. */
+    @SuppressWarnings("unchecked")
+    public T item(int change) {
+        checkChange(change);
+        return (T) items[change];
+    }
+
+    private void record(Kind kind, int index, int toIndex, T item) {
+        if (size == kinds.length) {
+            int capacity = 2 * size;
+            kinds = Arrays.copyOf(kinds, capacity);
+            indexes = Arrays.copyOf(indexes, capacity);
+            toIndexes = Arrays.copyOf(toIndexes, capacity);
+            items = Arrays.copyOf(items, capacity);
+        }
+        kinds[size] = kind;
+        indexes[size] = index;
+        toIndexes[size] = toIndex;
+        items[size] = item;
+        size++;
+    }
+
+    private void checkChange(int change) {
+        if (change < 0 || change >= size) {
+            throw new IndexOutOfBoundsException("Change " + change + " of " + size);
+        }
+    }
+}
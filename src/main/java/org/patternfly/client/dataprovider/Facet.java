@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Counts the items per value of a key. The counted items are the items which match all filters except the filter with
+ * the same id as the facet.
+ *
+ * <p>
+ * The facet remembers the counted items and their keys, so that counts are updated incrementally: only items which
+ * have been added to or removed from the counted items are looked at, and keys are extracted once per item.
+ * </p>
+ */
+class Facet<T> {
+
+    final String id;
+    private final Function<T, String> key;
+    private final Bits members;
+    private final Map<String, Integer> counts;
+    private final Map<String, Integer> countsView;
+    private String[] keys; // key by ordinal for the members
+    private boolean changed;
+
+    Facet(String id, Function<T, String> key) {
+        this.id = id;
+        this.key = key;
+        this.members = new Bits();
+        this.counts = new LinkedHashMap<>();
+        this.countsView = Collections.unmodifiableMap(counts);
+        this.keys = new String[0];
+    }
+
+    /** The number of items per key. Keys without items are removed. */
+    Map<String, Integer> counts() {
+        return countsView;
+    }
+
+    /** Returns whether the counts have changed since the last call and resets the flag. */
+    boolean changed() {
+        boolean result = changed;
+        changed = false;
+        return result;
+    }
+
+    /** Counts exactly the items in {@code target}. Only the differences to the current members are processed. */
+    void update(Bits target, ItemStore<T> store) {
+        for (int ordinal = members.nextSetBit(0); ordinal >= 0; ordinal = members.nextSetBit(ordinal + 1)) {
+            if (!target.get(ordinal)) {
+                exclude(ordinal);
+            }
+        }
+        for (int ordinal = target.nextSetBit(0); ordinal >= 0; ordinal = target.nextSetBit(ordinal + 1)) {
+            if (!members.get(ordinal)) {
+                include(ordinal, store.get(ordinal));
+            }
+        }
+    }
+
+    void include(int ordinal, T item) {
+        if (ordinal >= keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(2 * keys.length, ordinal + 1));
+        }
+        String k = key.apply(item);
+        keys[ordinal] = k;
+        members.set(ordinal);
+        if (k != null) {
+            Integer count = counts.get(k);
+            counts.put(k, count == null ? 1 : count + 1);
+            changed = true;
+        }
+    }
+
+    /** Removes the item from the counts. Must be called <em>before</em> the item is removed or replaced. */
+    void exclude(int ordinal) {
+        if (members.get(ordinal)) {
+            members.clear(ordinal);
+            String k = keys[ordinal];
+            keys[ordinal] = null;
+            if (k != null) {
+                int count = counts.get(k) - 1;
+                if (count == 0) {
+                    counts.remove(k);
+                } else {
+                    counts.put(k, count);
+                }
+                changed = true;
+            }
+        }
+    }
+
+    void clear() {
+        if (!counts.isEmpty()) {
+            changed = true;
+        }
+        members.clear();
+        counts.clear();
+        Arrays.fill(keys, null);
+    }
+}
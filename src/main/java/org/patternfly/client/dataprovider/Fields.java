@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The fields of an item which can be used in a {@link Filter} or a {@link Sort}. Compiles filters and sorts to
+ * predicates and comparators, so that the same query can be evaluated on the client and on the server:
+ *
+ * <pre>
+ * Fields&lt;Entry&gt; fields = new Fields&lt;Entry&gt;()
+ *         .add("name", Entry::getName)
+ *         .add("size", Entry::getSize);
+ * Predicate&lt;Entry&gt; predicate = fields.predicate(Filter.parse("name=co=foo;size=gt=10"));
+ * </pre>
+ *
+ * <p>
+ * If the value of a field is a number, conditions compare numerically. Otherwise the string value of the field is
+ * compared. Conditions on fields without value ({@code null}) match only for {@link Filter.Operator#NE}. Numbers are
+ * never compared to a non-numeric filter value as strings: such conditions match only for {@link
+ * Filter.Operator#NE}, too.
+ * </p>
+ *
+ * <p>
+ * Numeric fields should be added using {@link #addInt(String, ToIntFunction)}, {@link #addLong(String, ToLongFunction)}
+ * or {@link #addDouble(String, ToDoubleFunction)}. Comparisons and sorts of these fields work on primitive values and
+ * don't allocate.
+ * </p>
+ */
+public class Fields<T> {
+
+    private final Map<String, Function<T, ?>> fields;
+    private final Map<String, Object> numericFields; // ToIntFunction, ToLongFunction or ToDoubleFunction
+
+    public Fields() {
+        this.fields = new LinkedHashMap<>();
+        this.numericFields = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds a field.
+     *
+     * @param name      the name of the field as used in filters and sorts
+     * @param extractor returns the value of the field. Values should be numbers, strings or implement {@link
+     *                  Comparable}.
+     */
+    public Fields<T> add(String name, Function<T, ?> extractor) {
+        if (!Filter.isField(name)) {
+            throw new IllegalArgumentException("Invalid field name: '" + name + "'");
+        }
+        fields.put(name, extractor);
+        numericFields.remove(name);
+        return this;
+    }
+
+    public Fields<T> addInt(String name, ToIntFunction<T> extractor) {
+        add(name, extractor::applyAsInt);
+        numericFields.put(name, extractor);
+        return this;
+    }
+
+    public Fields<T> addLong(String name, ToLongFunction<T> extractor) {
+        add(name, extractor::applyAsLong);
+        numericFields.put(name, extractor);
+        return this;
+    }
+
+    public Fields<T> addDouble(String name, ToDoubleFunction<T> extractor) {
+        add(name, extractor::applyAsDouble);
+        numericFields.put(name, extractor);
+        return this;
+    }
+
+    public boolean contains(String name) {
+        return fields.containsKey(name);
+    }
+
+    /**
+     * Compiles the filter to a predicate.
+     *
+     * @throws IllegalArgumentException if the filter uses an unknown field or compares a field added as numeric field
+     *                                  with a value which is not a number
+     */
+    public Predicate<T> predicate(Filter filter) {
+        switch (filter.getKind()) {
+            case AND: {
+                List<Predicate<T>> predicates = predicates(filter);
+                return item -> {
+                    for (int i = 0; i < predicates.size(); i++) { // no iterator per evaluation
+                        if (!predicates.get(i).test(item)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            case OR: {
+                List<Predicate<T>> predicates = predicates(filter);
+                return item -> {
+                    for (int i = 0; i < predicates.size(); i++) {
+                        if (predicates.get(i).test(item)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case NOT:
+                return predicate(filter.getOperands().get(0)).negate();
+            default:
+                Predicate<T> numeric = numericCondition(filter.getField(), filter.getOperator(), filter.getValue());
+                return numeric != null
+                        ? numeric
+                        : condition(extractor(filter.getField()), filter.getOperator(), filter.getValue());
+        }
+    }
+
+    /**
+     * Compiles the sort to a comparator. The comparator are {@link SortKeys}, so the field values are extracted only
+     * once per item when sorting a {@link DataProvider}.
+     *
+     * @throws IllegalArgumentException if the sort uses an unknown field
+     */
+    @SuppressWarnings("unchecked")
+    public SortKeys<T> comparator(Sort sort) {
+        SortKeys<T> sortKeys = null;
+        for (Sort.Key key : sort.getKeys()) {
+            Object numeric = numericFields.get(key.getField());
+            if (numeric instanceof ToIntFunction) {
+                sortKeys = SortKeys.appendInt(sortKeys, (ToIntFunction<T>) numeric, key.isAscending());
+            } else if (numeric instanceof ToLongFunction) {
+                sortKeys = SortKeys.appendLong(sortKeys, (ToLongFunction<T>) numeric, key.isAscending());
+            } else if (numeric instanceof ToDoubleFunction) {
+                sortKeys = SortKeys.appendDouble(sortKeys, (ToDoubleFunction<T>) numeric, key.isAscending());
+            } else {
+                sortKeys = SortKeys.appendObject(sortKeys, extractor(key.getField()), key.isAscending());
+            }
+        }
+        return sortKeys;
+    }
+
+    private List<Predicate<T>> predicates(Filter filter) {
+        List<Filter> operands = filter.getOperands();
+        List<Predicate<T>> predicates = new ArrayList<>(operands.size());
+        for (Filter operand : operands) {
+            predicates.add(predicate(operand));
+        }
+        return predicates;
+    }
+
+    /**
+     * Returns a predicate which compares primitive values or {@code null} if the field is not numeric or the condition
+     * is not a comparison.
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate<T> numericCondition(String field, Filter.Operator operator, String value) {
+        Object numeric = numericFields.get(field);
+        if (numeric == null || operator == Filter.Operator.CONTAINS || operator == Filter.Operator.STARTS_WITH) {
+            return null;
+        }
+        Double number = parseNumber(value);
+        if (number == null) {
+            throw new IllegalArgumentException("Numeric field '" + field + "' compared with '" + value + "'");
+        }
+        double n = number;
+        if (numeric instanceof ToIntFunction) {
+            ToIntFunction<T> extractor = (ToIntFunction<T>) numeric;
+            return item -> matches(operator, Double.compare(extractor.applyAsInt(item), n));
+        } else if (numeric instanceof ToLongFunction) {
+            ToLongFunction<T> extractor = (ToLongFunction<T>) numeric;
+            if (n == (double) (long) n) {
+                long l = (long) n; // compare integral values exactly
+                return item -> matches(operator, Long.compare(extractor.applyAsLong(item), l));
+            }
+            return item -> matches(operator, Double.compare(extractor.applyAsLong(item), n));
+        } else {
+            ToDoubleFunction<T> extractor = (ToDoubleFunction<T>) numeric;
+            return item -> matches(operator, Double.compare(extractor.applyAsDouble(item), n));
+        }
+    }
+
+    private Predicate<T> condition(Function<T, ?> extractor, Filter.Operator operator, String value) {
+        Double number = parseNumber(value);
+        String lowerValue = value.toLowerCase();
+        return item -> {
+            Object fieldValue = extractor.apply(item);
+            if (fieldValue == null) {
+                return operator == Filter.Operator.NE;
+            }
+            if (operator == Filter.Operator.CONTAINS || operator == Filter.Operator.STARTS_WITH) {
+                String string = String.valueOf(fieldValue).toLowerCase();
+                return operator == Filter.Operator.CONTAINS
+                        ? string.contains(lowerValue)
+                        : string.startsWith(lowerValue);
+            }
+            if (fieldValue instanceof Number) {
+                // a number is neither equal to nor ordered with a non-numeric value
+                return number != null
+                        ? matches(operator, Double.compare(((Number) fieldValue).doubleValue(), number))
+                        : operator == Filter.Operator.NE;
+            }
+            return matches(operator, String.valueOf(fieldValue).compareTo(value));
+        };
+    }
+
+    private static boolean matches(Filter.Operator operator, int result) {
+        switch (operator) {
+            case EQ:
+                return result == 0;
+            case NE:
+                return result != 0;
+            case LT:
+                return result < 0;
+            case LE:
+                return result <= 0;
+            case GT:
+                return result > 0;
+            case GE:
+                return result >= 0;
+            default:
+                return false;
+        }
+    }
+
+    private Function<T, ?> extractor(String field) {
+        Function<T, ?> extractor = fields.get(field);
+        if (extractor == null) {
+            throw new IllegalArgumentException("Unknown field: '" + field + "'");
+        }
+        return extractor;
+    }
+
+    private static Double parseNumber(String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
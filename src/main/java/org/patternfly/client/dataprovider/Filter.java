@@ -0,0 +1,541 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Declarative filter which can be evaluated on the client and on the server. A filter is either a condition (field,
+ * operator and value) or a boolean composition of other filters. Use {@link Fields#predicate(Filter)} to evaluate the
+ * filter on the client.
+ *
+ * <p>
+ * Filters are immutable. The string representation is a compact, URL friendly form which can be parsed again using
+ * {@link #parse(String)}. Conditions are written as {@code field==value}, {@code field!=value} or {@code
+ * field=op=value}. Conditions are combined using {@code ;} (and), {@code ,} (or), {@code !(...)} (not) and
+ * parentheses:
+ * </p>
+ *
+ * <pre>
+ * name=co=foo;(size=gt=10,size=lt=2)
+ * </pre>
+ *
+ * <p>
+ * Values which contain reserved characters are quoted using single quotes. Use {@link #toJson()} to send the filter as
+ * JSON instead.
+ * </p>
+ */
+public class Filter {
+
+    public enum Kind {
+        CONDITION, AND, OR, NOT
+    }
+
+    public enum Operator {
+        EQ("==", "eq"),
+        NE("!=", "ne"),
+        LT("=lt=", "lt"),
+        LE("=le=", "le"),
+        GT("=gt=", "gt"),
+        GE("=ge=", "ge"),
+
+        /** Case insensitive substring match. */
+        CONTAINS("=co=", "co"),
+
+        /** Case insensitive prefix match. */
+        STARTS_WITH("=sw=", "sw");
+
+        private final String token;
+        private final String code;
+
+        Operator(String token, String code) {
+            this.token = token;
+            this.code = code;
+        }
+
+        /** The token used in the string representation, e.g. {@code =gt=}. */
+        public String getToken() {
+            return token;
+        }
+
+        /** The code used in the JSON representation, e.g. {@code gt}. */
+        public String getCode() {
+            return code;
+        }
+
+        static Operator fromToken(String token) {
+            for (Operator operator : values()) {
+                if (operator.token.equals(token)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------ factory methods
+
+    public static Filter condition(String field, Operator operator, String value) {
+        if (field == null || !isField(field)) {
+            throw new IllegalArgumentException("Invalid field name: '" + field + "'");
+        }
+        if (operator == null || value == null) {
+            throw new IllegalArgumentException("Operator and value are required");
+        }
+        return new Filter(Kind.CONDITION, field, operator, value, Collections.emptyList());
+    }
+
+    /**
+     * Returns a filter for {@code from <= field <= to}. Infinite bounds are omitted, e.g. {@code range("size", 10,
+     * Double.POSITIVE_INFINITY)} returns {@code size=ge=10}.
+     */
+    public static Filter range(String field, double from, double to) {
+        List<Filter> conditions = new ArrayList<>();
+        if (from != Double.NEGATIVE_INFINITY) {
+            conditions.add(condition(field, Operator.GE, number(from)));
+        }
+        if (to != Double.POSITIVE_INFINITY) {
+            conditions.add(condition(field, Operator.LE, number(to)));
+        }
+        if (conditions.isEmpty()) {
+            conditions.add(condition(field, Operator.GE, number(from)));
+        }
+        return conditions.size() == 1 ? conditions.get(0) : and(conditions.toArray(new Filter[0]));
+    }
+
+    private static String number(double value) {
+        return value == (double) (long) value ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    public static Filter and(Filter... filters) {
+        return compose(Kind.AND, filters);
+    }
+
+    public static Filter or(Filter... filters) {
+        return compose(Kind.OR, filters);
+    }
+
+    public static Filter not(Filter filter) {
+        return new Filter(Kind.NOT, null, null, null, Collections.singletonList(filter));
+    }
+
+    /**
+     * Parses the string representation of a filter.
+     *
+     * @throws IllegalArgumentException if the string is not a valid filter
+     */
+    public static Filter parse(String filter) {
+        Parser parser = new Parser(filter);
+        Filter result = parser.or();
+        if (!parser.done()) {
+            throw parser.error("Unexpected character");
+        }
+        return result;
+    }
+
+    private static Filter compose(Kind kind, Filter... filters) {
+        if (filters.length == 0) {
+            throw new IllegalArgumentException(kind + " requires at least one filter");
+        }
+        if (filters.length == 1) {
+            return filters[0];
+        }
+        return new Filter(kind, null, null, null, Collections.unmodifiableList(new ArrayList<>(asList(filters))));
+    }
+
+    // ------------------------------------------------------ instance
+
+    private final Kind kind;
+    private final String field;
+    private final Operator operator;
+    private final String value;
+    private final List<Filter> operands;
+
+    private Filter(Kind kind, String field, Operator operator, String value, List<Filter> operands) {
+        this.kind = kind;
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.operands = operands;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Filter)) {
+            return false;
+        }
+
+        Filter filter = (Filter) o;
+        if (kind != filter.kind) {
+            return false;
+        }
+        if (operator != filter.operator) {
+            return false;
+        }
+        if (field != null ? !field.equals(filter.field) : filter.field != null) {
+            return false;
+        }
+        if (value != null ? !value.equals(filter.value) : filter.value != null) {
+            return false;
+        }
+        return operands.equals(filter.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = kind.hashCode();
+        result = 31 * result + (field != null ? field.hashCode() : 0);
+        result = 31 * result + (operator != null ? operator.hashCode() : 0);
+        result = 31 * result + (value != null ? value.hashCode() : 0);
+        result = 31 * result + operands.hashCode();
+        return result;
+    }
+
+    /** Returns the compact string representation which can be parsed using {@link #parse(String)}. */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        write(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the JSON representation of this filter:
+     *
+     * <pre>
+     * {"field":"name","op":"co","value":"foo"}
+     * {"and":[...]}
+     * {"or":[...]}
+     * {"not":{...}}
+     * </pre>
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        writeJson(builder);
+        return builder.toString();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** The field of a condition or {@code null}. */
+    public String getField() {
+        return field;
+    }
+
+    /** The operator of a condition or {@code null}. */
+    public Operator getOperator() {
+        return operator;
+    }
+
+    /** The value of a condition or {@code null}. */
+    public String getValue() {
+        return value;
+    }
+
+    /** The filters combined by and, or and not. Empty for conditions. */
+    public List<Filter> getOperands() {
+        return operands;
+    }
+
+    // ------------------------------------------------------ serialization
+
+    private void write(StringBuilder builder) {
+        switch (kind) {
+            case CONDITION:
+                builder.append(field).append(operator.token);
+                writeValue(builder, value);
+                break;
+            case AND:
+                for (int i = 0; i < operands.size(); i++) {
+                    Filter operand = operands.get(i);
+                    if (i > 0) {
+                        builder.append(';');
+                    }
+                    if (operand.kind == Kind.OR) {
+                        builder.append('(');
+                        operand.write(builder);
+                        builder.append(')');
+                    } else {
+                        operand.write(builder);
+                    }
+                }
+                break;
+            case OR:
+                for (int i = 0; i < operands.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    operands.get(i).write(builder);
+                }
+                break;
+            case NOT:
+                builder.append("!(");
+                operands.get(0).write(builder);
+                builder.append(')');
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void writeValue(StringBuilder builder, String value) {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            quote = isReserved(value.charAt(i));
+        }
+        if (quote) {
+            builder.append('\'');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\'' || c == '\\') {
+                    builder.append('\\');
+                }
+                builder.append(c);
+            }
+            builder.append('\'');
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private void writeJson(StringBuilder builder) {
+        switch (kind) {
+            case CONDITION:
+                builder.append("{\"field\":");
+                writeJsonString(builder, field);
+                builder.append(",\"op\":\"").append(operator.code).append("\",\"value\":");
+                writeJsonString(builder, value);
+                builder.append('}');
+                break;
+            case AND:
+            case OR:
+                builder.append(kind == Kind.AND ? "{\"and\":[" : "{\"or\":[");
+                for (int i = 0; i < operands.size(); i++) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    operands.get(i).writeJson(builder);
+                }
+                builder.append("]}");
+                break;
+            case NOT:
+                builder.append("{\"not\":");
+                operands.get(0).writeJson(builder);
+                builder.append('}');
+                break;
+            default:
+                break;
+        }
+    }
+
+    static void writeJsonString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        String hex = Integer.toHexString(c);
+                        builder.append("\\u");
+                        for (int j = hex.length(); j < 4; j++) {
+                            builder.append('0');
+                        }
+                        builder.append(hex);
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+
+    static boolean isField(String field) {
+        if (field.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < field.length(); i++) {
+            if (!isFieldChar(field.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFieldChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
+    }
+
+    private static boolean isReserved(char c) {
+        return c == ';' || c == ',' || c == '(' || c == ')' || c == '\'' || c == '\\' || c == '!' || c == '=' ||
+                Character.isWhitespace(c);
+    }
+
+    // ------------------------------------------------------ parser
+
+    /** Recursive descent parser for the string representation. */
+    private static class Parser {
+
+        private final String input;
+        private int position;
+
+        Parser(String input) {
+            this.input = input == null ? "" : input;
+        }
+
+        // or := and (',' and)*
+        Filter or() {
+            List<Filter> filters = new ArrayList<>();
+            filters.add(and());
+            while (accept(',')) {
+                filters.add(and());
+            }
+            return compose(Kind.OR, filters.toArray(new Filter[0]));
+        }
+
+        // and := unary (';' unary)*
+        Filter and() {
+            List<Filter> filters = new ArrayList<>();
+            filters.add(unary());
+            while (accept(';')) {
+                filters.add(unary());
+            }
+            return compose(Kind.AND, filters.toArray(new Filter[0]));
+        }
+
+        // unary := '!(' or ')' | '(' or ')' | condition
+        Filter unary() {
+            if (peek() == '!' && position + 1 < input.length() && input.charAt(position + 1) == '(') {
+                position += 2;
+                Filter filter = or();
+                expect(')');
+                return not(filter);
+            } else if (accept('(')) {
+                Filter filter = or();
+                expect(')');
+                return filter;
+            }
+            return condition();
+        }
+
+        // condition := field operator value
+        Filter condition() {
+            int start = position;
+            while (!done() && isFieldChar(peek())) {
+                position++;
+            }
+            if (start == position) {
+                throw error("Field expected");
+            }
+            String field = input.substring(start, position);
+            return new Filter(Kind.CONDITION, field, operator(), value(), Collections.emptyList());
+        }
+
+        Operator operator() {
+            int start = position;
+            if (input.startsWith("==", position) || input.startsWith("!=", position)) {
+                position += 2;
+            } else if (accept('=')) {
+                while (!done() && peek() != '=') {
+                    position++;
+                }
+                expect('=');
+            }
+            Operator operator = Operator.fromToken(input.substring(start, position));
+            if (operator == null) {
+                position = start;
+                throw error("Operator expected");
+            }
+            return operator;
+        }
+
+        String value() {
+            StringBuilder builder = new StringBuilder();
+            if (accept('\'')) {
+                while (true) {
+                    if (done()) {
+                        throw error("Unterminated value");
+                    }
+                    char c = input.charAt(position++);
+                    if (c == '\'') {
+                        break;
+                    } else if (c == '\\' && !done()) {
+                        c = input.charAt(position++);
+                    }
+                    builder.append(c);
+                }
+            } else {
+                while (!done() && !isReserved(peek())) {
+                    builder.append(input.charAt(position++));
+                }
+                if (builder.length() == 0) {
+                    throw error("Value expected");
+                }
+            }
+            return builder.toString();
+        }
+
+        boolean done() {
+            return position >= input.length();
+        }
+
+        private char peek() {
+            return done() ? 0 : input.charAt(position);
+        }
+
+        private boolean accept(char c) {
+            if (peek() == c && !done()) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error("'" + c + "' expected");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in '" + input + "'");
+        }
+    }
+}
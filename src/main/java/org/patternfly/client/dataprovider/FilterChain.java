@@ -0,0 +1,282 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.lang.Math.max;
+
+/**
+ * The filters of a {@link DataProvider} combined by logical and. The results are cached per item ordinal.
+ *
+ * <p>
+ * Filters are evaluated lazily: a filter is only evaluated for items which passed the filters before, the results of
+ * the other items remain unknown until needed. The order of the filters is chosen by their rank, i.e. the cost of one
+ * evaluation divided by the share of rejected items, so that cheap and selective filters run first. Cost and pass rate
+ * are measured while filtering. An optional cost hint is used until enough evaluations have been timed.
+ * </p>
+ *
+ * <p>
+ * Filters backed by an index (e.g. a {@link RangeIndex}) run before all other filters. Their results are looked up in
+ * the index for all items at once. The predicate is only used for items which are added or replaced.
+ * </p>
+ */
+class FilterChain<T> {
+
+    /** Assumed cost of one evaluation in nanoseconds if there's neither a hint nor a measurement. */
+    static final double DEFAULT_COST = 1000;
+
+    /** Number of timed evaluations after which the measured cost replaces the hint. */
+    static final int MIN_SAMPLES = 32;
+
+    /**
+     * Number of evaluations after which the statistics of a filter are halved. Keeps the counters of long living data
+     * providers from overflowing and lets recent evaluations weigh more than old ones.
+     */
+    static final int MAX_SAMPLES = 1 << 20;
+
+    private final Map<String, Entry<T>> filters;
+    private List<Entry<T>> order; // null if the filters have to be ranked again
+
+    FilterChain() {
+        this.filters = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds or replaces a filter. The measured cost of a replaced filter is kept, since filters with the same id are
+     * usually equally expensive (e.g. a search filter for a new search term).
+     *
+     * @param costHint estimated cost of one evaluation in nanoseconds or 0 if unknown
+     */
+    void add(String id, Predicate<T> predicate, double costHint) {
+        add(id, predicate, costHint, null);
+    }
+
+    /**
+     * Adds or replaces a filter backed by an index.
+     *
+     * @param index sets the ordinals of all matching items in the passed bits
+     */
+    void add(String id, Predicate<T> predicate, double costHint, Consumer<Bits> index) {
+        Entry<T> entry = new Entry<>(id, predicate, costHint, index);
+        Entry<T> replaced = filters.put(id, entry);
+        if (replaced != null) {
+            entry.timed = replaced.timed;
+            entry.nanos = replaced.nanos;
+        }
+        order = null;
+    }
+
+    boolean remove(String id) {
+        if (filters.remove(id) != null) {
+            order = null;
+            return true;
+        }
+        return false;
+    }
+
+    void clear() {
+        filters.clear();
+        order = null;
+    }
+
+    /** Forgets the cached results, because all items have been replaced. Keeps the filters and their statistics. */
+    void invalidate() {
+        for (Entry<T> entry : filters.values()) {
+            entry.known.clear();
+        }
+    }
+
+    boolean isEmpty() {
+        return filters.isEmpty();
+    }
+
+    /**
+     * Removes the items from {@code matching} which don't pass all filters. Initially {@code matching} has to contain
+     * the ordinals of all items. The filters are ranked again before, since their statistics may have changed.
+     */
+    void apply(Bits matching, ItemStore<T> items) {
+        order = null;
+        for (Entry<T> entry : order()) {
+            if (entry.index != null) {
+                entry.matches.clear();
+                entry.index.accept(entry.matches);
+                entry.known.copyFrom(items.live());
+                matching.and(entry.matches);
+            } else {
+                filter(entry, matching, items);
+            }
+        }
+    }
+
+    /**
+     * Removes the items from {@code matching} which don't pass all filters except the filter with the specified id.
+     * Must be called after {@link #apply(Bits, ItemStore)}: only the filters which have been skipped for some items
+     * are evaluated.
+     */
+    void applyExcept(String id, Bits matching, ItemStore<T> items) {
+        for (Entry<T> entry : order()) {
+            if (!entry.id.equals(id)) {
+                filter(entry, matching, items);
+            }
+        }
+    }
+
+    private void filter(Entry<T> entry, Bits matching, ItemStore<T> items) {
+        int evaluated = 0;
+        long start = System.nanoTime();
+        for (int ordinal = matching.nextSetBit(0); ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1)) {
+            if (!entry.known.get(ordinal)) {
+                entry.test(ordinal, items.get(ordinal));
+                evaluated++;
+            }
+        }
+        if (evaluated > 0) {
+            entry.time(evaluated, System.nanoTime() - start);
+        }
+        matching.and(entry.matches);
+    }
+
+    /**
+     * Evaluates the filters for a new or replaced item in rank order and returns whether the item passes all filters.
+     * Filters after the first rejecting filter are not evaluated.
+     */
+    boolean evaluate(int ordinal, T item) {
+        boolean matches = true;
+        for (Entry<T> entry : order()) {
+            if (matches) {
+                matches = entry.test(ordinal, item);
+            } else {
+                entry.known.clear(ordinal); // the cached result belongs to the previous item
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns whether an item passes all filters except the filter with the specified id. Uses the cached results and
+     * evaluates only the filters which have been skipped by {@link #evaluate(int, Object)}.
+     */
+    boolean passesExcept(String id, int ordinal, T item) {
+        for (Entry<T> entry : order()) {
+            if (!entry.id.equals(id)) {
+                boolean matches = entry.known.get(ordinal) ? entry.matches.get(ordinal) : entry.test(ordinal, item);
+                if (!matches) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    boolean contains(String id) {
+        return filters.containsKey(id);
+    }
+
+    /** Returns the statistics of the filters in the order they are evaluated. */
+    List<FilterStats> stats() {
+        List<FilterStats> stats = new ArrayList<>();
+        for (Entry<T> entry : order()) {
+            stats.add(new FilterStats(entry.id, entry.evaluations, entry.passes, entry.cost(), entry.measured(),
+                    entry.costHint, entry.rank()));
+        }
+        return stats;
+    }
+
+    private List<Entry<T>> order() {
+        if (order == null) {
+            order = new ArrayList<>(filters.values());
+            order.sort((e1, e2) -> {
+                if ((e1.index == null) != (e2.index == null)) {
+                    return e1.index != null ? -1 : 1; // indexed filters first
+                }
+                return Double.compare(e1.rank(), e2.rank()); // stable: ties keep insertion order
+            });
+        }
+        return order;
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    private static class Entry<T> {
+
+        final String id;
+        final Predicate<T> predicate;
+        final double costHint;
+        final Consumer<Bits> index;
+        final Bits matches;
+        final Bits known; // whether the result in matches is valid
+        int evaluations;
+        int passes;
+        int timed;
+        double nanos;
+
+        Entry(String id, Predicate<T> predicate, double costHint, Consumer<Bits> index) {
+            this.id = id;
+            this.predicate = predicate;
+            this.costHint = costHint;
+            this.index = index;
+            this.matches = new Bits();
+            this.known = new Bits();
+        }
+
+        boolean test(int ordinal, T item) {
+            boolean match = predicate.test(item);
+            matches.set(ordinal, match);
+            known.set(ordinal);
+            evaluations++;
+            if (match) {
+                passes++;
+            }
+            if (evaluations > MAX_SAMPLES) {
+                evaluations /= 2;
+                passes /= 2;
+            }
+            return match;
+        }
+
+        void time(int evaluated, long elapsed) {
+            timed += evaluated;
+            nanos += elapsed;
+            if (timed > MAX_SAMPLES) {
+                timed /= 2;
+                nanos /= 2;
+            }
+        }
+
+        boolean measured() {
+            return timed >= MIN_SAMPLES || (timed > 0 && costHint <= 0);
+        }
+
+        double cost() {
+            if (measured()) {
+                return nanos / timed;
+            }
+            return costHint > 0 ? costHint : DEFAULT_COST;
+        }
+
+        /** Expected cost per rejected item. The pass rate is smoothed, so that unevaluated filters get 50%. */
+        double rank() {
+            double passRate = (passes + 1.0) / (evaluations + 2.0);
+            return max(cost(), 1) / (1 - passRate);
+        }
+    }
+}
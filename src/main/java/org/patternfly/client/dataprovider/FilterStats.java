@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+/**
+ * Diagnostic information about a filter of a {@link DataProvider}: how often it has been evaluated, how many items it
+ * passed and how expensive it is. See {@link DataProvider#getFilterStats()}.
+ */
+public class FilterStats {
+
+    private final String id;
+    private final int evaluations;
+    private final int passes;
+    private final double cost;
+    private final boolean measured;
+    private final double costHint;
+    private final double rank;
+
+    FilterStats(String id, int evaluations, int passes, double cost, boolean measured, double costHint, double rank) {
+        this.id = id;
+        this.evaluations = evaluations;
+        this.passes = passes;
+        this.cost = cost;
+        this.measured = measured;
+        this.costHint = costHint;
+        this.rank = rank;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterStats(" + id + ", evaluations=" + evaluations + ", passes=" + passes + ", cost=" +
+                Math.round(cost) + "ns" + (measured ? "" : " (estimated)") + ", rank=" + Math.round(rank) + ')';
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** The number of items the filter has been evaluated for. */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /** The number of items which passed the filter. */
+    public int getPasses() {
+        return passes;
+    }
+
+    /** The share of evaluated items which passed the filter or 1 if the filter has not been evaluated yet. */
+    public double getPassRate() {
+        return evaluations == 0 ? 1 : (double) passes / evaluations;
+    }
+
+    /** The cost of one evaluation in nanoseconds: measured, taken from the cost hint or a default. */
+    public double getCost() {
+        return cost;
+    }
+
+    /** Whether the cost has been measured or is an estimation. */
+    public boolean isMeasured() {
+        return measured;
+    }
+
+    /** The cost hint passed to {@link DataProvider#addFilter(String, java.util.function.Predicate, double)} or 0. */
+    public double getCostHint() {
+        return costHint;
+    }
+
+    /** The expected cost per rejected item. Filters are evaluated in ascending order of their rank. */
+    public double getRank() {
+        return rank;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.patternfly.client.core.SelectHandler;
+
+/**
+ * Provides filtered, sorted and paged items to {@linkplain Display displays}. This is the contract the components work
+ * with. It's implemented by {@link DataProvider}, which holds all items on the client, and by {@link
+ * RemoteDataProvider}, which loads the items of the current page from the server.
+ *
+ * <p>
+ * The interface contains only the operations both implementations support. Operations which need all items on the
+ * client, like adding items, facets and aggregates, are part of {@link DataProvider} only.
+ * </p>
+ */
+public interface ItemProvider<T> {
+
+    // ------------------------------------------------------ items
+
+    /** Returns whether the item is part of the items held by this provider. */
+    boolean contains(T item);
+
+    /** Returns whether the item is shown on the current page. */
+    boolean isVisible(T item);
+
+    String getId(T item);
+
+    /** Returns the item with the specified id or {@code null} if there's no such item. */
+    T getItem(String id);
+
+    Function<T, String> getIdentifier();
+
+    Iterable<T> getAllItems();
+
+    int getAllItemsCount();
+
+    Iterable<T> getFilteredItems();
+
+    Iterable<T> getVisibleItems();
+
+    // ------------------------------------------------------ selection
+
+    void onSelect(SelectHandler<T> selectHandler);
+
+    void selectAll();
+
+    void selectVisible();
+
+    void clearAllSelection();
+
+    void clearVisibleSelection();
+
+    void select(T item, boolean select);
+
+    SelectionInfo<T> getSelectionInfo();
+
+    // ------------------------------------------------------ filter
+
+    /**
+     * Adds or replaces the filter with the specified id. The value is a string representation of the filter which can
+     * be sent to a server.
+     */
+    void addFilter(String id, String value, Predicate<T> filter);
+
+    /**
+     * Adds or replaces the filter with the specified id. Its {@linkplain Filter#toString() string representation} is
+     * used as value.
+     */
+    void addFilter(String id, Filter filter, Fields<T> fields);
+
+    /** Adds or replaces a filter which matches all items where the attribute is in [from, to]. */
+    void addRangeFilter(String id, String attribute, double from, double to);
+
+    /** Adds or replaces a filter which matches all items where one of the fields of a text index contains the query. */
+    void addTextFilter(String id, String index, String query);
+
+    void removeFilter(String id);
+
+    void clearFilters();
+
+    boolean hasFilters();
+
+    // ------------------------------------------------------ aggregates
+
+    /**
+     * Returns the specified aggregate or {@code null} if there's no such aggregate. See {@link
+     * DataProvider#addAggregate(String, java.util.function.ToDoubleFunction)}.
+     */
+    Aggregate getAggregate(String id);
+
+    // ------------------------------------------------------ sort
+
+    void sort(SortInfo<T> sortInfo);
+
+    /**
+     * Sorts the items by the specified sort keys. Its {@linkplain Sort#toString() string representation} is used as id
+     * of the {@link SortInfo}.
+     */
+    void sort(Sort sort, Fields<T> fields);
+
+    // ------------------------------------------------------ paging
+
+    void setPageSize(int pageSize);
+
+    void gotoFirstPage();
+
+    void gotoPreviousPage();
+
+    void gotoNextPage();
+
+    void gotoLastPage();
+
+    void gotoPage(int page);
+
+    // ------------------------------------------------------ batch
+
+    /**
+     * Starts a batch of modifications. The displays are updated once when the outermost batch ends. Calls must be
+     * balanced by {@link #endUpdate()}.
+     */
+    void beginUpdate();
+
+    void endUpdate();
+
+    boolean isUpdating();
+
+    // ------------------------------------------------------ displays
+
+    void addDisplay(Display<T> display);
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.Math.max;
+
+/**
+ * Stores the items of a {@link DataProvider}. Each item gets an ordinal, a small non-negative integer which is used as
+ * index in arrays and {@link Bits} holding per item state. Ordinals of removed items are reused.
+ *
+ * <p>
+ * The id of an item is stored alongside the item, so that the identifier function runs only once per item. Stored
+ * items can be mapped to their ordinal (and id) by identity.
+ * </p>
+ */
+class ItemStore<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ordinals; // insertion order
+    private final Map<T, Integer> identities;
+    private final Bits live;
+    private Object[] items;
+    private String[] ids;
+    private int[] sequence;
+    private int[] free;
+    private int freeCount;
+    private int length;
+    private int nextSequence;
+
+    ItemStore() {
+        this.ordinals = new LinkedHashMap<>();
+        this.identities = new IdentityHashMap<>();
+        this.live = new Bits(INITIAL_CAPACITY);
+        this.items = new Object[INITIAL_CAPACITY];
+        this.ids = new String[INITIAL_CAPACITY];
+        this.sequence = new int[INITIAL_CAPACITY];
+        this.free = new int[INITIAL_CAPACITY];
+    }
+
+    void clear() {
+        ordinals.clear();
+        identities.clear();
+        live.clear();
+        for (int i = 0; i < length; i++) {
+            items[i] = null;
+            ids[i] = null;
+        }
+        freeCount = 0;
+        length = 0;
+        nextSequence = 0;
+    }
+
+    /**
+     * Adds the item and returns its ordinal. If there's already an item with the same id, the item is replaced and
+     * keeps its ordinal and insertion order.
+     */
+    int add(String id, T item) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            set(existing, item);
+            return existing;
+        }
+        int ordinal;
+        if (freeCount > 0) {
+            ordinal = free[--freeCount];
+        } else {
+            ordinal = length++;
+            ensureCapacity(length);
+        }
+        items[ordinal] = item;
+        ids[ordinal] = id;
+        sequence[ordinal] = nextSequence++;
+        live.set(ordinal);
+        ordinals.put(id, ordinal);
+        identities.put(item, ordinal);
+        return ordinal;
+    }
+
+    /** Removes the item and returns its former ordinal or -1 if there's no item with that id. */
+    int remove(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return -1;
+        }
+        identities.remove(get(ordinal));
+        items[ordinal] = null;
+        ids[ordinal] = null;
+        live.clear(ordinal);
+        free[freeCount++] = ordinal;
+        return ordinal;
+    }
+
+    /** Replaces the item with the specified ordinal. The item must have the same id. */
+    void set(int ordinal, T item) {
+        identities.remove(get(ordinal));
+        items[ordinal] = item;
+        identities.put(item, ordinal);
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int ordinal) {
+        return (T) items[ordinal];
+    }
+
+    T get(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? get(ordinal) : null;
+    }
+
+    String id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    /** Returns the ordinal of the specified item instance or -1 if this instance is not stored. */
+    int identityOrdinal(T item) {
+        Integer ordinal = identities.get(item);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /** Returns the ordinal of the item with the specified id or -1 if there's no such item. */
+    int ordinal(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /** Position of the item in the order the items have been added. */
+    int sequence(int ordinal) {
+        return sequence[ordinal];
+    }
+
+    /** Returns the ordinal of the item which has been added first or -1 if the store is empty. */
+    int oldest() {
+        Iterator<Integer> iterator = ordinals.values().iterator();
+        return iterator.hasNext() ? iterator.next() : -1;
+    }
+
+    /** Ordinals of all items in insertion order */
+    Iterable<Integer> ordinals() {
+        return ordinals.values();
+    }
+
+    Iterable<T> values() {
+        return () -> new Iterator<T>() {
+            private final Iterator<Integer> iterator = ordinals.values().iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return get(iterator.next());
+            }
+        };
+    }
+
+    /** The ordinals of all stored items. */
+    Bits live() {
+        return live;
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    /** Upper bound (exclusive) of the ordinals in use. */
+    int length() {
+        return length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (items.length < capacity) {
+            int grown = max(capacity, items.length * 2);
+            Object[] newItems = new Object[grown];
+            String[] newIds = new String[grown];
+            int[] newSequence = new int[grown];
+            int[] newFree = new int[grown];
+            System.arraycopy(items, 0, newItems, 0, items.length);
+            System.arraycopy(ids, 0, newIds, 0, ids.length);
+            System.arraycopy(sequence, 0, newSequence, 0, sequence.length);
+            System.arraycopy(free, 0, newFree, 0, free.length);
+            items = newItems;
+            ids = newIds;
+            sequence = newSequence;
+            free = newFree;
+        }
+    }
+}
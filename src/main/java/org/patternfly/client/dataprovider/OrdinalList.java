@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import static java.lang.Math.max;
+
+/**
+ * Growable list of item ordinals. The backing array is reused across updates. If the list is sorted, single ordinals
+ * can be inserted and removed using a binary search.
+ *
+ * <p>
+ * Removing the first ordinal only moves the start of the list, so that evicting the oldest items of an insertion
+ * ordered list doesn't shift the remaining ordinals. Likewise inserting a first ordinal uses free space in front of the
+ * list. If there's none, the ordinals are moved back once to make room for as many ordinals as the list holds, so that
+ * lists sorted newest first grow in amortized constant time.
+ * </p>
+ */
+class OrdinalList {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ordinals;
+    private int start; // index of the first ordinal in the backing array
+    private int size;
+
+    OrdinalList() {
+        this.ordinals = new int[INITIAL_CAPACITY];
+    }
+
+    void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    void add(int ordinal) {
+        ensureCapacity(size + 1);
+        ordinals[start + size++] = ordinal;
+    }
+
+    /** Replaces the content with {@code ordinals[0, count)}. */
+    void set(int[] ordinals, int count) {
+        start = 0;
+        ensureCapacity(count);
+        System.arraycopy(ordinals, 0, this.ordinals, 0, count);
+        size = count;
+    }
+
+    int get(int index) {
+        return ordinals[start + index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the index of the ordinal in {@code [from, to)} or -1. */
+    int indexOf(int ordinal, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (ordinals[start + i] == ordinal) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Inserts the ordinal at its sorted position and returns the position. */
+    int insert(int ordinal, SortedIndex.OrdinalComparator comparator) {
+        int index = search(ordinal, comparator);
+        if (index < 0) {
+            index = -(index + 1);
+            if (index == 0) {
+                if (start == 0) {
+                    reserveFront();
+                }
+                ordinals[--start] = ordinal;
+            } else {
+                ensureCapacity(size + 1);
+                System.arraycopy(ordinals, start + index, ordinals, start + index + 1, size - index);
+                ordinals[start + index] = ordinal;
+            }
+            size++;
+        }
+        return index;
+    }
+
+    /**
+     * Removes the ordinal and returns its former position or -1. Must be called <em>before</em> the item is removed
+     * from or replaced in the store.
+     */
+    int remove(int ordinal, SortedIndex.OrdinalComparator comparator) {
+        int index = search(ordinal, comparator);
+        if (index < 0 || ordinals[start + index] != ordinal) {
+            // the item might have been modified in place: fall back to a linear search
+            index = indexOf(ordinal, 0, size);
+        }
+        if (index == 0) {
+            start++;
+            size--;
+            if (size == 0) {
+                start = 0;
+            }
+        } else if (index > 0) {
+            System.arraycopy(ordinals, start + index + 1, ordinals, start + index, size - index - 1);
+            size--;
+        }
+        return index;
+    }
+
+    /** Returns the backing array with the ordinals in {@code [0, size)}. */
+    int[] array() {
+        compact();
+        return ordinals;
+    }
+
+    private int search(int ordinal, SortedIndex.OrdinalComparator comparator) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int result = comparator.compare(ordinals[start + mid], ordinal);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (ordinals.length - start < capacity) {
+            compact();
+        }
+        if (ordinals.length < capacity) {
+            int[] grown = new int[max(capacity, ordinals.length * 2)];
+            System.arraycopy(ordinals, 0, grown, 0, size);
+            ordinals = grown;
+        }
+    }
+
+    /** Moves the ordinals back, so that there's free space for at least {@code max(size, 16)} ordinals in front. */
+    private void reserveFront() {
+        int headroom = max(INITIAL_CAPACITY, size);
+        int[] target = ordinals;
+        if (ordinals.length < headroom + size) {
+            target = new int[max(2 * ordinals.length, headroom + size)];
+        }
+        System.arraycopy(ordinals, start, target, headroom, size);
+        ordinals = target;
+        start = headroom;
+    }
+
+    private void compact() {
+        if (start > 0) {
+            System.arraycopy(ordinals, start, ordinals, 0, size);
+            start = 0;
+        }
+    }
+}
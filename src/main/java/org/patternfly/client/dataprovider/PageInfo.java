@@ -22,13 +22,39 @@ public class PageInfo {
 
     public static final int DEFAULT_PAGE_SIZE = 20;
 
+    /** Used as total if the number of items is not known. */
+    public static final int UNKNOWN_TOTAL = -1;
+
+    /** How accurate the total is. */
+    public enum TotalKind {
+        /** The total is the exact number of items. */
+        EXACT,
+
+        /** The total is an estimation, e.g. taken from the statistics of a database. */
+        ESTIMATED,
+
+        /** There are at least as many items as the total, e.g. if the server stopped counting. */
+        AT_LEAST,
+
+        /** The number of items is not known. The total is {@link #UNKNOWN_TOTAL}. */
+        UNKNOWN
+    }
+
+    private final boolean cursor;
     private int pageSize;
     private int page;
     private int visible;
     private int total;
+    private TotalKind totalKind;
+    private boolean nextPage; // only used if pages are addressed by cursor or if the total is not exact
 
     PageInfo(int pageSize) {
+        this(pageSize, false);
+    }
+
+    PageInfo(int pageSize, boolean cursor) {
         this.pageSize = pageSize;
+        this.cursor = cursor;
         reset();
     }
 
@@ -37,12 +63,16 @@ public class PageInfo {
         this.page = page;
         this.visible = visible;
         this.total = total;
+        this.totalKind = TotalKind.EXACT;
+        this.cursor = false;
     }
 
     void reset() {
         page = 0;
         visible = 0;
         total = 0;
+        totalKind = TotalKind.EXACT;
+        nextPage = false;
     }
 
     void setPageSize(int pageSize) {
@@ -51,16 +81,42 @@ public class PageInfo {
 
     void setPage(int page) {
         int safePage = max(0, page);
-        this.page = min(safePage, getPages() - 1);
+        this.page = limitPages() ? min(safePage, getPages() - 1) : safePage;
     }
 
     void setVisible(int visible) {
-        this.visible = min(total, visible);
+        this.visible = totalKind == TotalKind.EXACT ? min(total, visible) : visible;
     }
 
+    /** Sets an exact total or {@link #UNKNOWN_TOTAL}. */
     void setTotal(int total) {
-        this.total = total;
-        this.page = min(this.page, getPages() - 1);
+        setTotal(total, total == UNKNOWN_TOTAL ? TotalKind.UNKNOWN : TotalKind.EXACT);
+    }
+
+    void setTotal(int total, TotalKind totalKind) {
+        this.totalKind = totalKind;
+        this.total = totalKind == TotalKind.UNKNOWN ? UNKNOWN_TOTAL : total;
+        if (limitPages()) {
+            this.page = min(this.page, getPages() - 1);
+        }
+    }
+
+    void setNextPage(boolean nextPage) {
+        this.nextPage = nextPage;
+    }
+
+    /**
+     * Sets whether there's a next page after the items of the query have been loaded: a full page which is not the
+     * last page according to an exact total. Must be called after {@link #setTotal(int, TotalKind)}.
+     */
+    void setNextPage(PageQuery query, int loaded) {
+        this.nextPage = loaded >= query.getPageSize() &&
+                (totalKind != TotalKind.EXACT || (query.getPage() + 1) * query.getPageSize() < total);
+    }
+
+    /** Only an exact total limits the pages which can be requested by index. */
+    private boolean limitPages() {
+        return !cursor && totalKind == TotalKind.EXACT;
     }
 
     @Override
@@ -82,6 +138,15 @@ public class PageInfo {
         if (visible != pageInfo.visible) {
             return false;
         }
+        if (cursor != pageInfo.cursor) {
+            return false;
+        }
+        if (nextPage != pageInfo.nextPage) {
+            return false;
+        }
+        if (totalKind != pageInfo.totalKind) {
+            return false;
+        }
         return total == pageInfo.total;
     }
 
@@ -91,32 +156,50 @@ public class PageInfo {
         result = 31 * result + pageSize;
         result = 31 * result + visible;
         result = 31 * result + total;
+        result = 31 * result + totalKind.hashCode();
+        result = 31 * result + (cursor ? 1 : 0);
+        result = 31 * result + (nextPage ? 1 : 0);
         return result;
     }
 
     @Override
     public String toString() {
-        return "PageInfo(pageSize=" + pageSize + ", page=" + page + ", visible=" + visible + ", total=" + total + ')';
+        return "PageInfo(pageSize=" + pageSize + ", page=" + page + ", visible=" + visible + ", total=" + total +
+                ", totalKind=" + totalKind + ", cursor=" + cursor + ')';
     }
 
     public int getFrom() {
-        return total == 0 ? 0 : getPage() * getPageSize() + 1;
+        if (totalKind == TotalKind.EXACT) {
+            return total == 0 ? 0 : getPage() * getPageSize() + 1;
+        }
+        return visible == 0 ? 0 : getPage() * getPageSize() + 1;
     }
 
     public int getTo() {
-        return min(total, getFrom() + getPageSize() - 1);
+        if (totalKind == TotalKind.EXACT) {
+            return min(total, getFrom() + getPageSize() - 1);
+        }
+        return visible == 0 ? 0 : getFrom() + visible - 1;
     }
 
     public int getPage() {
         return page;
     }
 
+    /**
+     * The number of pages. If the total is not exact, the number of pages is based on the total and on the pages known
+     * so far, i.e. up to the next page (if any).
+     */
     public int getPages() {
+        int known = page + (nextPage ? 2 : 1);
+        if (totalKind == TotalKind.UNKNOWN) {
+            return known;
+        }
         int pages = total / pageSize;
         if (total % pageSize != 0) {
             pages++;
         }
-        return max(1, pages);
+        return totalKind == TotalKind.EXACT ? max(1, pages) : max(known, pages);
     }
 
     public int getPageSize() {
@@ -127,7 +210,35 @@ public class PageInfo {
         return visible;
     }
 
+    /**
+     * The number of all items or {@link #UNKNOWN_TOTAL} if the number is not known. Use {@link #getTotalKind()} to
+     * find out how accurate the total is.
+     */
     public int getTotal() {
         return total;
     }
+
+    public TotalKind getTotalKind() {
+        return totalKind;
+    }
+
+    public boolean isTotalKnown() {
+        return totalKind != TotalKind.UNKNOWN;
+    }
+
+    /**
+     * Whether pages are addressed by the cursor of the first or last item of a page rather than by an index. Only the
+     * first, the previous and the next page can be requested.
+     */
+    public boolean isCursor() {
+        return cursor;
+    }
+
+    public boolean hasPreviousPage() {
+        return page > 0;
+    }
+
+    public boolean hasNextPage() {
+        return cursor || totalKind != TotalKind.EXACT ? nextPage : page < getPages() - 1;
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The page, sort order and filters requested by a {@link RemoteDataProvider}. Queries are immutable and two queries
+ * are equal if they request the same items.
+ *
+ * <p>
+ * If the provider uses cursor based paging, pages are addressed by the cursor of an item instead of the offset: The
+ * first page has neither an {@linkplain #getAfter() after} nor a {@linkplain #getBefore() before} cursor. The next page
+ * contains the items following the cursor of the last item of the current page, the previous page the items preceding
+ * the cursor of the first item. This way the server can seek to the cursor using an index and pages don't shift if
+ * items are added.
+ * </p>
+ */
+public class PageQuery {
+
+    private final int page;
+    private final int pageSize;
+    private final String sortId;
+    private final boolean ascending;
+    private final Map<String, String> filters;
+    private final boolean cursor;
+    private final String after;
+    private final String before;
+
+    PageQuery(int page, int pageSize, String sortId, boolean ascending, Map<String, String> filters) {
+        this(page, pageSize, sortId, ascending, filters, false, null, null);
+    }
+
+    PageQuery(int page, int pageSize, String sortId, boolean ascending, Map<String, String> filters, boolean cursor,
+            String after, String before) {
+        this.page = page;
+        this.pageSize = pageSize;
+        this.sortId = sortId;
+        this.ascending = ascending;
+        this.filters = Collections.unmodifiableMap(new TreeMap<>(filters));
+        this.cursor = cursor;
+        this.after = after;
+        this.before = before;
+    }
+
+    /** Returns the same query for another page. Must not be used for cursor based queries. */
+    PageQuery withPage(int page) {
+        return new PageQuery(page, pageSize, sortId, ascending, filters);
+    }
+
+    /** Returns the same cursor based query for another page. */
+    PageQuery withCursor(int page, String after, String before) {
+        return new PageQuery(page, pageSize, sortId, ascending, filters, true, after, before);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageQuery)) {
+            return false;
+        }
+
+        PageQuery query = (PageQuery) o;
+        if (page != query.page) {
+            return false;
+        }
+        if (pageSize != query.pageSize) {
+            return false;
+        }
+        if (ascending != query.ascending) {
+            return false;
+        }
+        if (cursor != query.cursor) {
+            return false;
+        }
+        if (after != null ? !after.equals(query.after) : query.after != null) {
+            return false;
+        }
+        if (before != null ? !before.equals(query.before) : query.before != null) {
+            return false;
+        }
+        if (sortId != null ? !sortId.equals(query.sortId) : query.sortId != null) {
+            return false;
+        }
+        return filters.equals(query.filters);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = page;
+        result = 31 * result + pageSize;
+        result = 31 * result + (sortId != null ? sortId.hashCode() : 0);
+        result = 31 * result + (ascending ? 1 : 0);
+        result = 31 * result + filters.hashCode();
+        result = 31 * result + (cursor ? 1 : 0);
+        result = 31 * result + (after != null ? after.hashCode() : 0);
+        result = 31 * result + (before != null ? before.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PageQuery(page=" + page + ", pageSize=" + pageSize + ", sortId=" + sortId + ", ascending=" +
+                ascending + ", filters=" + filters + (cursor ? ", after=" + after + ", before=" + before : "") + ')';
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** The index of the first requested item. Not meaningful for cursor based queries. */
+    public int getOffset() {
+        return page * pageSize;
+    }
+
+    /** The id of the sort order or {@code null} if the items are not sorted. */
+    public String getSortId() {
+        return sortId;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /** The filter values keyed by the filter id, in ascending order of the filter ids. */
+    public Map<String, String> getFilters() {
+        return filters;
+    }
+
+    /** Whether the page is addressed by {@link #getAfter()} and {@link #getBefore()} rather than the offset. */
+    public boolean isCursor() {
+        return cursor;
+    }
+
+    /**
+     * The cursor of the last item of the previous page or {@code null}. Return the first {@link #getPageSize()} items
+     * following this item.
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * The cursor of the first item of the next page or {@code null}. Return the last {@link #getPageSize()} items
+     * preceding this item - in the requested sort order.
+     */
+    public String getBefore() {
+        return before;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The ordinals of the items in a {@link ItemStore} sorted by a numeric attribute. Answers range queries using a binary
+ * search, so that a range filter needs O(log n + k) steps instead of evaluating a predicate for all items.
+ *
+ * <p>
+ * The index is built lazily by the first query after it has been {@linkplain #invalidate() invalidated}. Until then
+ * single items are inserted and removed using a binary search. {@code NaN} values are sorted last and never match.
+ * </p>
+ */
+class RangeIndex<T> {
+
+    private final ItemStore<T> store;
+    private final ToDoubleFunction<T> attribute;
+    private double[] values; // sorted by value and ordinal
+    private int[] ordinals;
+    private int size;
+    private double[] valueOf; // value by ordinal
+    private boolean valid;
+    private T lastItem; // the item added last and its value: filters evaluate the value again right after adding
+    private double lastValue;
+
+    RangeIndex(ItemStore<T> store, ToDoubleFunction<T> attribute) {
+        this.store = store;
+        this.attribute = attribute;
+        this.values = new double[0];
+        this.ordinals = new int[0];
+        this.valueOf = new double[0];
+    }
+
+    double value(T item) {
+        return item == lastItem ? lastValue : attribute.applyAsDouble(item);
+    }
+
+    /** The index is rebuilt by the next query. Call this when all items of the store are replaced. */
+    void invalidate() {
+        valid = false;
+        lastItem = null;
+    }
+
+    /** Inserts the ordinal of an item which has been added to the store. */
+    void add(int ordinal, T item) {
+        if (!valid) {
+            return;
+        }
+        double value = attribute.applyAsDouble(item);
+        if (size == values.length) {
+            int length = Math.max(16, 2 * size);
+            values = Arrays.copyOf(values, length);
+            ordinals = Arrays.copyOf(ordinals, length);
+        }
+        if (ordinal >= valueOf.length) {
+            valueOf = Arrays.copyOf(valueOf, Math.max(store.length(), ordinal + 1));
+        }
+        int index = position(value, ordinal);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+        values[index] = value;
+        ordinals[index] = ordinal;
+        valueOf[ordinal] = value;
+        size++;
+        lastItem = item;
+        lastValue = value;
+    }
+
+    /**
+     * Removes the ordinal of an item. Must be called <em>before</em> the item is removed from or replaced in the store.
+     */
+    void remove(int ordinal) {
+        if (!valid) {
+            return;
+        }
+        int index = position(valueOf[ordinal], ordinal);
+        if (index < size && ordinals[index] == ordinal) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /** Sets the ordinals of all items with {@code from <= value <= to} in {@code result}. Returns their number. */
+    int query(double from, double to, Bits result) {
+        if (!valid) {
+            rebuild();
+        }
+        int start = lowerBound(from);
+        int end = upperBound(to);
+        for (int i = start; i < end; i++) {
+            result.set(ordinals[i]);
+        }
+        return Math.max(0, end - start);
+    }
+
+    private void rebuild() {
+        size = 0;
+        values = new double[store.size()];
+        ordinals = new int[store.size()];
+        valueOf = new double[store.length()];
+        for (int ordinal : store.ordinals()) {
+            valueOf[ordinal] = attribute.applyAsDouble(store.get(ordinal));
+            ordinals[size++] = ordinal;
+        }
+        SortedIndex.sort(ordinals, 0, size, this::compare);
+        for (int i = 0; i < size; i++) {
+            values[i] = valueOf[ordinals[i]];
+        }
+        valid = true;
+    }
+
+    private int compare(int ordinal1, int ordinal2) {
+        int result = Double.compare(valueOf[ordinal1], valueOf[ordinal2]);
+        return result != 0 ? result : Integer.compare(ordinal1, ordinal2);
+    }
+
+    /** Returns the index of the first entry which is not less than (value, ordinal). */
+    private int position(double value, int ordinal) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int result = Double.compare(values[mid], value);
+            if (result < 0 || (result == 0 && ordinals[mid] < ordinal)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the index of the first value which is not less than {@code from}. */
+    private int lowerBound(double from) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(values[mid], from) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the index of the first value which is greater than {@code to}. */
+    private int upperBound(double to) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(values[mid], to) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,657 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.patternfly.client.core.SelectHandler;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Data provider for items which are filtered, sorted and paged on the server. Only the items of the current page are
+ * held on the client.
+ *
+ * <p>
+ * Each change of the page, page size, sort order or filters results in a {@link PageQuery} which is passed to a {@link
+ * DataLoader}. The total number of items reported by the loader is used for the {@link PageInfo}. The provider can be
+ * used with all components which work with an {@link ItemProvider}.
+ * </p>
+ *
+ * <p>
+ * Only the response to the latest query reaches the displays. Each query is tagged with a generation number. Responses
+ * to superseded queries are discarded and the loader is asked to {@linkplain DataLoader#cancel(PageQuery) cancel}
+ * them. A query which is identical to the query in flight is not sent again.
+ * </p>
+ *
+ * <p>
+ * Filters are sent to the server as filter id and value. Use {@link #addFilter(String, String, Predicate)} to add
+ * filters. The predicate is not used. Sort orders are sent as sort id and direction. The comparator of the {@link
+ * SortInfo} is not used. Declarative filters and sorts added using {@link #addFilter(String, Filter, Fields)} and
+ * {@link #sort(Sort, Fields)} are sent in their string representation, so the server can parse them using {@link
+ * Filter#parse(String)} and {@link Sort#parse(String)}.
+ * </p>
+ *
+ * <p>
+ * Pages are addressed by index unless a cursor function is passed to the constructor. Then pages are addressed by the
+ * cursor of the first or last item of the current page (keyset pagination, see {@link PageQuery}). Only the first,
+ * the previous and the next page can be requested. Requests for other pages are ignored.
+ * </p>
+ *
+ * <p>
+ * Counting all items can be expensive. Loaders can report an estimated total, a lower bound or an unknown total
+ * together with the items (see {@link PageInfo.TotalKind}). The items are shown right away. If the loader reports the
+ * exact total later on, the displays are notified using {@link Display#updatePageInfo(PageInfo)}.
+ * </p>
+ *
+ * <p>
+ * Items are owned by the server. Operations which need all items on the client, like adding items, facets and
+ * aggregates, are only provided by {@link DataProvider}. Use {@link #reload()} to load the first page and to load the
+ * current page again.
+ * </p>
+ */
+public class RemoteDataProvider<T> implements ItemProvider<T> {
+
+    private final Function<T, String> identifier;
+    private final DataLoader<T> loader;
+    private final PageInfo pageInfo;
+    private final SelectionInfo<T> selectionInfo;
+    private final Map<String, T> items; // the items of the current page
+    private final Map<String, String> filters;
+    private final List<Display<T>> displays;
+    private final List<SelectHandler<T>> selectHandler;
+    private final List<Consumer<Throwable>> errorHandler;
+    private final Function<T, String> cursor;
+    private SortInfo<T> sortInfo;
+    private int page; // the requested page
+    private String after; // the requested cursors
+    private String before;
+    private Request shown; // the request of the current page
+    private Request current; // the latest request which has been passed to the loader
+    private int generation;
+    private int batchDepth;
+    private boolean pendingLoad;
+    private boolean pendingReload;
+    private boolean pendingSelection;
+
+    public RemoteDataProvider(Function<T, String> identifier, DataLoader<T> loader) {
+        this(identifier, PageInfo.DEFAULT_PAGE_SIZE, loader);
+    }
+
+    public RemoteDataProvider(Function<T, String> identifier, int pageSize, DataLoader<T> loader) {
+        this(identifier, pageSize, loader, null);
+    }
+
+    /**
+     * Creates a data provider which addresses pages by cursor.
+     *
+     * @param cursor returns the cursor of an item. The cursor is sent to the loader, which uses it to find the item in
+     *               the requested sort order. It should encode the sort keys of the item and its id, so that it's
+     *               unique.
+     */
+    public RemoteDataProvider(Function<T, String> identifier, int pageSize, DataLoader<T> loader,
+            Function<T, String> cursor) {
+        this.identifier = identifier;
+        this.loader = loader;
+        this.cursor = cursor;
+        this.pageInfo = new PageInfo(pageSize, cursor != null);
+        this.items = new LinkedHashMap<>();
+        this.selectionInfo = new SelectionInfo<>(identifier, new SelectionInfo.Scope<T>() {
+            @Override
+            public int size() {
+                // an unknown total is less than the number of loaded items
+                return max(pageInfo.getTotal(), items.size());
+            }
+
+            @Override
+            public Iterable<T> items() {
+                return items.values();
+            }
+        });
+        this.filters = new LinkedHashMap<>();
+        this.displays = new ArrayList<>();
+        this.selectHandler = new ArrayList<>();
+        this.errorHandler = new ArrayList<>();
+        this.sortInfo = new SortInfo<>();
+    }
+
+    // ------------------------------------------------------ items
+
+    /** Loads the current page again. Cached pages are discarded. */
+    public void reload() {
+        loader.invalidate();
+        load(true);
+    }
+
+    /** Adds a handler which is called if the loader fails. */
+    public void onError(Consumer<Throwable> errorHandler) {
+        this.errorHandler.add(errorHandler);
+    }
+
+    /** Returns whether the item is part of the current page. */
+    @Override
+    public boolean contains(T item) {
+        return items.containsKey(identifier.apply(item));
+    }
+
+    @Override
+    public boolean isVisible(T item) {
+        return contains(item);
+    }
+
+    @Override
+    public String getId(T item) {
+        return identifier.apply(item);
+    }
+
+    /** Returns the item with the specified id if it's part of the current page. */
+    @Override
+    public T getItem(String id) {
+        return items.get(id);
+    }
+
+    @Override
+    public Function<T, String> getIdentifier() {
+        return identifier;
+    }
+
+    /** Returns the items of the current page. */
+    @Override
+    public Iterable<T> getAllItems() {
+        return items.values();
+    }
+
+    /**
+     * Returns the number of all items matching the current filters as reported by the loader or {@link
+     * PageInfo#UNKNOWN_TOTAL}.
+     */
+    @Override
+    public int getAllItemsCount() {
+        return pageInfo.getTotal();
+    }
+
+    /** Returns the items of the current page. */
+    @Override
+    public Iterable<T> getFilteredItems() {
+        return items.values();
+    }
+
+    @Override
+    public Iterable<T> getVisibleItems() {
+        return items.values();
+    }
+
+    // ------------------------------------------------------ selection
+
+    @Override
+    public void onSelect(SelectHandler<T> selectHandler) {
+        this.selectHandler.add(selectHandler);
+    }
+
+    /**
+     * Selects all items matching the current filters, including the items which have not been loaded. Use {@link
+     * SelectionInfo#isInverted()} to find out whether all items have been selected. The selection count is only exact
+     * if the total is exact.
+     */
+    @Override
+    public void selectAll() {
+        selectionInfo.selectAll();
+        updateSelection();
+    }
+
+    @Override
+    public void selectVisible() {
+        selectionInfo.reset();
+        for (Map.Entry<String, T> entry : items.entrySet()) {
+            selectionInfo.add(entry.getKey(), entry.getValue());
+        }
+        updateSelection();
+    }
+
+    @Override
+    public void clearAllSelection() {
+        if (selectionInfo.hasSelection()) {
+            selectionInfo.reset();
+            updateSelection();
+        }
+    }
+
+    @Override
+    public void clearVisibleSelection() {
+        if (selectionInfo.hasSelection()) {
+            for (Map.Entry<String, T> entry : items.entrySet()) {
+                selectionInfo.remove(entry.getKey(), entry.getValue());
+            }
+            updateSelection();
+        }
+    }
+
+    @Override
+    public void select(T item, boolean select) {
+        String id = identifier.apply(item);
+        if (select) {
+            selectionInfo.add(id, item);
+            for (SelectHandler<T> handler : selectHandler) {
+                handler.onSelect(item);
+            }
+        } else {
+            selectionInfo.remove(id, item);
+        }
+        updateSelection();
+    }
+
+    @Override
+    public SelectionInfo<T> getSelectionInfo() {
+        return selectionInfo;
+    }
+
+    private void updateSelection() {
+        if (batchDepth > 0) {
+            pendingSelection = true;
+            return;
+        }
+        for (Display<T> display : displays) {
+            display.updateSelection(selectionInfo);
+        }
+        selectionInfo.clearChanges();
+    }
+
+    // ------------------------------------------------------ filter
+
+    /** Adds or replaces the filter with the specified id and loads the items matching the filters. */
+    @Override
+    public void addFilter(String id, String value, Predicate<T> filter) {
+        filters.put(id, value);
+        resetCursor();
+        load();
+    }
+
+    /**
+     * Adds or replaces the filter with the specified id and loads the items matching the filters. The filter value is
+     * the {@linkplain Filter#toString() string representation} of the filter. The fields are not used.
+     */
+    @Override
+    public void addFilter(String id, Filter filter, Fields<T> fields) {
+        addFilter(id, filter.toString(), null);
+    }
+
+    /**
+     * Adds or replaces a range filter and loads the items matching the filters. The filter value is the {@linkplain
+     * Filter#range(String, double, double) declarative range}, e.g. {@code timestamp=ge=1500000000000}.
+     */
+    @Override
+    public void addRangeFilter(String id, String attribute, double from, double to) {
+        addFilter(id, Filter.range(attribute, from, to).toString(), null);
+    }
+
+    /** Returns {@code null}: a remote data provider has no aggregates. */
+    @Override
+    public Aggregate getAggregate(String id) {
+        return null;
+    }
+
+    /** Adds or replaces a text filter and loads the items matching the filters. The filter value is the query. */
+    @Override
+    public void addTextFilter(String id, String index, String query) {
+        addFilter(id, query, null);
+    }
+
+    @Override
+    public void removeFilter(String id) {
+        if (filters.containsKey(id)) {
+            filters.remove(id);
+            resetCursor();
+            load();
+        }
+    }
+
+    @Override
+    public void clearFilters() {
+        if (!filters.isEmpty()) {
+            filters.clear();
+            resetCursor();
+            load();
+        }
+    }
+
+    @Override
+    public boolean hasFilters() {
+        return !filters.isEmpty();
+    }
+
+    // ------------------------------------------------------ sort
+
+    /** Loads the items in the specified sort order. Only the id and the direction are sent to the server. */
+    @Override
+    public void sort(SortInfo<T> sortInfo) {
+        this.sortInfo = sortInfo;
+        resetCursor();
+        load();
+    }
+
+    /**
+     * Loads the items in the specified sort order. The {@linkplain Sort#toString() string representation} of the sort
+     * is sent to the server as id of the {@link SortInfo}.
+     */
+    @Override
+    public void sort(Sort sort, Fields<T> fields) {
+        sort(new SortInfo<>(sort.toString(), fields.comparator(sort), true));
+    }
+
+    // ------------------------------------------------------ paging
+
+    @Override
+    public void setPageSize(int pageSize) {
+        int oldPageSize = pageInfo.getPageSize();
+        pageInfo.setPageSize(pageSize);
+        if (oldPageSize != pageInfo.getPageSize()) {
+            resetCursor();
+            load();
+        }
+    }
+
+    @Override
+    public void gotoFirstPage() {
+        if (cursor != null) {
+            seek(0, null, null);
+        } else {
+            gotoPage(0);
+        }
+    }
+
+    @Override
+    public void gotoPreviousPage() {
+        if (cursor != null) {
+            if (pageInfo.getPage() <= 1 || items.isEmpty()) {
+                // load the first page rather than the items before the cursor to include items added in the meantime
+                seek(0, null, null);
+            } else {
+                seek(pageInfo.getPage() - 1, null, cursor.apply(items.values().iterator().next()));
+            }
+        } else {
+            gotoPage(page - 1);
+        }
+    }
+
+    @Override
+    public void gotoNextPage() {
+        if (cursor != null) {
+            if (pageInfo.hasNextPage() && !items.isEmpty()) {
+                T last = null;
+                for (T item : items.values()) {
+                    last = item;
+                }
+                seek(pageInfo.getPage() + 1, cursor.apply(last), null);
+            }
+        } else {
+            gotoPage(page + 1);
+        }
+    }
+
+    /** Loads the last page. Ignored if pages are addressed by cursor. */
+    @Override
+    public void gotoLastPage() {
+        if (cursor == null) {
+            gotoPage(pageInfo.getPages() - 1);
+        }
+    }
+
+    /**
+     * Loads the specified page. The page is limited by the number of pages known from the last response. If pages are
+     * addressed by cursor, only the first, the previous and the next page can be loaded. Other pages are ignored.
+     */
+    @Override
+    public void gotoPage(int page) {
+        if (cursor != null) {
+            if (page == 0) {
+                gotoFirstPage();
+            } else if (page == pageInfo.getPage() - 1) {
+                gotoPreviousPage();
+            } else if (page == pageInfo.getPage() + 1) {
+                gotoNextPage();
+            }
+            return;
+        }
+        int safePage = max(0, min(page, pageInfo.getPages() - 1));
+        if (safePage != this.page) {
+            this.page = safePage;
+            load();
+        }
+    }
+
+    // ------------------------------------------------------ batch
+
+    /** Applies all modifications made by the consumer in one batch. The items are loaded only once. */
+    public void batch(Consumer<RemoteDataProvider<T>> modifications) {
+        beginUpdate();
+        try {
+            modifications.accept(this);
+        } finally {
+            endUpdate();
+        }
+    }
+
+    @Override
+    public void beginUpdate() {
+        batchDepth++;
+    }
+
+    @Override
+    public void endUpdate() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("endUpdate() without beginUpdate()");
+        }
+        batchDepth--;
+        if (batchDepth == 0) {
+            boolean load = pendingLoad;
+            boolean reload = pendingReload;
+            boolean selection = pendingSelection;
+            pendingLoad = false;
+            pendingReload = false;
+            pendingSelection = false;
+            if (load) {
+                load(reload);
+            } else if (selection) {
+                updateSelection();
+            }
+        }
+    }
+
+    @Override
+    public boolean isUpdating() {
+        return batchDepth > 0;
+    }
+
+    // ------------------------------------------------------ displays
+
+    @Override
+    public void addDisplay(Display<T> display) {
+        displays.add(display);
+    }
+
+    // ------------------------------------------------------ internals
+
+    private void load() {
+        load(false);
+    }
+
+    /**
+     * Passes the current query to the loader unless the identical query is already in flight.
+     *
+     * @param force whether to load the query even if the identical query is in flight
+     */
+    private void load(boolean force) {
+        if (batchDepth > 0) {
+            pendingLoad = true;
+            pendingReload |= force;
+            return;
+        }
+
+        PageQuery query = new PageQuery(page, pageInfo.getPageSize(), sortInfo.isEmpty() ? null : sortInfo.getId(),
+                sortInfo.isAscending(), filters, cursor != null, after, before);
+        if (current != null) {
+            if (!force && current.query.equals(query)) {
+                return; // coalesce: the response to the request in flight will be shown
+            }
+            loader.cancel(current.query); // superseded
+        }
+        Request request = new Request(query, ++generation);
+        current = request;
+        loader.load(query, new DataLoader.Callback<T>() {
+            @Override
+            public void onSuccess(List<T> items, int total, PageInfo.TotalKind totalKind) {
+                if (isCurrent(request)) {
+                    current = null;
+                    if (request.exactTotal != PageInfo.UNKNOWN_TOTAL) {
+                        show(request, items, request.exactTotal, PageInfo.TotalKind.EXACT);
+                    } else {
+                        show(request, items, total, totalKind);
+                    }
+                } // else: the response to a superseded query
+            }
+
+            @Override
+            public void onTotal(int total) {
+                if (isCurrent(request)) {
+                    request.exactTotal = total; // counted before the items have been loaded
+                } else if (request == shown) {
+                    updateTotal(total);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                if (isCurrent(request)) {
+                    current = null;
+                    for (Consumer<Throwable> handler : errorHandler) {
+                        handler.accept(error);
+                    }
+                }
+            }
+        });
+    }
+
+    private boolean isCurrent(Request request) {
+        return current != null && current.generation == request.generation;
+    }
+
+    private void show(Request request, List<T> loaded, int total, PageInfo.TotalKind totalKind) {
+        PageQuery query = request.query;
+        if (query.isCursor() && query.getPage() > 0 && loaded.size() < query.getPageSize()) {
+            if (query.getBefore() != null) {
+                // items have been removed in the meantime: start over
+                seek(0, null, null);
+                return;
+            }
+            if (loaded.isEmpty()) {
+                // no items after the current page: stay on the current page
+                page = shown.query.getPage();
+                after = shown.query.getAfter();
+                before = shown.query.getBefore();
+                pageInfo.setNextPage(false);
+                showPage();
+                return;
+            }
+        }
+
+        pageInfo.setTotal(total, totalKind); // total first!
+        pageInfo.setPage(query.getPage());
+        if (pageInfo.getPage() != query.getPage()) {
+            // the requested page no longer exists
+            page = pageInfo.getPage();
+            load();
+            return;
+        }
+        pageInfo.setNextPage(query, loaded.size());
+
+        shown = request;
+        items.clear();
+        for (T item : loaded) {
+            items.put(identifier.apply(item), item);
+        }
+        pageInfo.setVisible(items.size());
+        showPage();
+    }
+
+    private void showPage() {
+        selectionInfo.markAllChanged();
+        for (Display<T> display : displays) {
+            display.showItems(items.values(), pageInfo);
+            display.updateSelection(selectionInfo);
+            display.updateSortInfo(sortInfo);
+        }
+        selectionInfo.clearChanges();
+    }
+
+    private void updateTotal(int total) {
+        pageInfo.setTotal(total, PageInfo.TotalKind.EXACT);
+        if (shown.query.isCursor()) {
+            if (pageInfo.getPage() > 0 && pageInfo.getFrom() > total) {
+                // the current page is beyond the exact total and the cursors point to items which are gone
+                resetCursor();
+                load();
+                return;
+            }
+            pageInfo.setNextPage(pageInfo.hasNextPage() && pageInfo.getTo() < total);
+        } else if (pageInfo.getPage() != shown.query.getPage()) {
+            // the current page is beyond the exact total
+            page = pageInfo.getPage();
+            load();
+            return;
+        }
+        for (Display<T> display : displays) {
+            display.updatePageInfo(pageInfo);
+        }
+    }
+
+    private void seek(int page, String after, String before) {
+        this.page = page;
+        this.after = after;
+        this.before = before;
+        load();
+    }
+
+    /** Cursors are only valid for the query they have been taken from: restart at the first page. */
+    private void resetCursor() {
+        if (cursor != null) {
+            page = 0;
+            after = null;
+            before = null;
+        }
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    /** A query which has been passed to the loader tagged with a generation number. */
+    private static class Request {
+
+        final PageQuery query;
+        final int generation;
+        int exactTotal = PageInfo.UNKNOWN_TOTAL; // reported by onTotal() before onSuccess()
+
+        Request(PageQuery query, int generation) {
+            this.query = query;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+/**
+ * Runs a task after a delay. Used by a {@link DataProvider} to defer notifying its displays. In the browser a scheduler
+ * is usually backed by {@code setTimeout}:
+ *
+ * <pre>
+ * Scheduler scheduler = (task, delay) -&gt; DomGlobal.setTimeout(__ -&gt; task.run(), delay);
+ * </pre>
+ */
+@FunctionalInterface
+public interface Scheduler {
+
+    void schedule(Runnable task, int delay);
+}
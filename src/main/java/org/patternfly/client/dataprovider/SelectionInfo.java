@@ -16,38 +16,185 @@
 package org.patternfly.client.dataprovider;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 /**
  * Holds the selected items in a {@link DataProvider}.
+ *
+ * <p>
+ * The selection is either a set of selected items or - after selecting all items - all items matching the current
+ * filters except a set of deselected items. The latter makes selecting all items independent of the number of items.
+ * </p>
+ *
+ * <p>
+ * Both sets are stored as bits keyed by the item ordinal of the {@link ItemStore} of the data provider. Items which
+ * have been (de)selected since the displays have been updated are recorded as well. Displays can use
+ * {@link #isAllChanged()} and {@link #getChangedItems()} to update only the rows which have changed.
+ * </p>
  */
 public class SelectionInfo<T> {
 
     private final Function<T, String> identifier;
-    private final Map<String, T> selection; // contains only selected items
+    private final ItemStore<T> store;
+    private final boolean ownStore; // the selection is not bound to a data provider and stores the items itself
+    private final Bits scope; // the items matching the current filters or null if not bound to a data provider
+    private final Scope<T> loaded; // the items matching the current filters if the items are loaded page by page
+    private final Bits selection; // the selected items or the deselected items if inverted
+    private final Bits changes;
+    private int[] order; // ordinals of the selected items in insertion order, reused
+    private int orderSize;
+    private boolean orderValid;
+    private int count; // cardinality of selection
+    private boolean inverted;
+    private boolean allChanged;
 
     SelectionInfo(Function<T, String> identifier) {
-        this(identifier, new HashMap<>());
+        this(identifier, new ItemStore<>(), true, null, null);
+    }
+
+    /** Selection of a data provider which loads the items page by page and which does not know all items. */
+    SelectionInfo(Function<T, String> identifier, Scope<T> loaded) {
+        this(identifier, new ItemStore<>(), true, null, loaded);
+    }
+
+    SelectionInfo(Function<T, String> identifier, ItemStore<T> store, Bits scope) {
+        this(identifier, store, false, scope, null);
     }
 
-    SelectionInfo(Function<T, String> identifier, Map<String, T> selection) {
+    private SelectionInfo(Function<T, String> identifier, ItemStore<T> store, boolean ownStore, Bits scope,
+            Scope<T> loaded) {
         this.identifier = identifier;
-        this.selection = selection;
+        this.store = store;
+        this.ownStore = ownStore;
+        this.scope = scope;
+        this.loaded = loaded;
+        this.selection = new Bits();
+        this.changes = new Bits();
+        this.order = new int[0];
     }
 
     void reset() {
+        if (inverted) {
+            allChanged = true;
+        } else {
+            changes.or(selection);
+        }
         selection.clear();
+        count = 0;
+        orderValid = false;
+        inverted = false;
+        if (ownStore) {
+            store.clear();
+        }
+    }
+
+    /** Selects all items matching the current filters in O(1). */
+    void selectAll() {
+        if (scope == null && loaded == null) {
+            throw new IllegalStateException("Select all is not supported without a scope");
+        }
+        reset();
+        inverted = true;
+        allChanged = true;
     }
 
     void add(String id, T item) {
-        selection.put(id, item);
+        if (ownStore) {
+            if (inverted) {
+                unstore(id);
+            } else {
+                flip(store.add(id, item), true);
+            }
+        } else {
+            int ordinal = store.ordinal(id);
+            if (ordinal >= 0) {
+                select(ordinal);
+            }
+        }
     }
 
     void remove(String id) {
-        selection.remove(id);
+        remove(id, null);
+    }
+
+    /**
+     * Deselects the item. If the selection stores the items itself, the item is needed to deselect it after all items
+     * have been selected.
+     */
+    void remove(String id, T item) {
+        if (ownStore) {
+            if (!inverted) {
+                unstore(id);
+            } else if (item != null) {
+                flip(store.add(id, item), true);
+            }
+        } else {
+            int ordinal = store.ordinal(id);
+            if (ordinal >= 0) {
+                deselect(ordinal);
+            }
+        }
+    }
+
+    void select(int ordinal) {
+        flip(ordinal, !inverted);
+    }
+
+    void deselect(int ordinal) {
+        flip(ordinal, inverted);
+    }
+
+    /** Removes all traces of an item which has been removed from the data provider. Its ordinal might be reused. */
+    void discard(int ordinal) {
+        if (selection.get(ordinal)) {
+            selection.clear(ordinal);
+            count--;
+            orderValid = false;
+        }
+        changes.clear(ordinal);
+    }
+
+    /** Marks an item as changed, e.g. because the displays have inserted or updated its row. */
+    void markChanged(int ordinal) {
+        changes.set(ordinal);
+    }
+
+    /** Marks all items as changed, e.g. because the displays have rebuilt their rows. */
+    void markAllChanged() {
+        allChanged = true;
+    }
+
+    void clearChanges() {
+        changes.clear();
+        allChanged = false;
+    }
+
+    /** If the selection stores the items itself, only the items whose bit is set are stored. */
+    private void unstore(String id) {
+        int ordinal = store.ordinal(id);
+        if (ordinal >= 0) {
+            flip(ordinal, false);
+            discard(ordinal);
+            store.remove(id);
+        }
+    }
+
+    private void flip(int ordinal, boolean set) {
+        if (selection.get(ordinal) != set) {
+            selection.set(ordinal, set);
+            count += set ? 1 : -1;
+            orderValid = false;
+            if (ownStore) {
+                allChanged = true; // the ordinals of stored items are reused
+            } else if (changes.get(ordinal)) {
+                changes.clear(ordinal); // flipped back
+            } else {
+                changes.set(ordinal);
+            }
+        }
     }
 
     @Override
@@ -60,32 +207,238 @@ public class SelectionInfo<T> {
         }
 
         SelectionInfo<?> other = (SelectionInfo<?>) o;
-        return selection.equals(other.selection);
+        return inverted == other.inverted && selection.equals(other.selection);
     }
 
     @Override
     public int hashCode() {
-        return selection.hashCode();
+        int result = selection.hashCode();
+        result = 31 * result + (inverted ? 1 : 0);
+        return result;
     }
 
     @Override
     public String toString() {
+        if (inverted) {
+            return "SelectionInfo(all except " + count + " items)";
+        }
         return "SelectionInfo(" + getSelection() + ')';
     }
 
+    /**
+     * Returns a copy of the selected items. Prefer {@link #getSelectedItems()} if all items have been selected.
+     */
     public List<T> getSelection() {
-        return new ArrayList<>(selection.values());
+        List<T> items = new ArrayList<>(getSelectionCount());
+        for (T item : getSelectedItems()) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Returns a lazy view of the selected items in the order they have been added to the data provider. If all items
+     * have been selected, the items matching the current filters are looked up while iterating.
+     */
+    public Iterable<T> getSelectedItems() {
+        if (inverted && scope == null) {
+            // only the loaded items are known
+            return () -> new Iterator<T>() {
+                private final Iterator<T> items = loaded.items().iterator();
+                private T next;
+                private boolean hasNext = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return hasNext;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext) {
+                        throw new NoSuchElementException();
+                    }
+                    T item = next;
+                    hasNext = advance();
+                    return item;
+                }
+
+                private boolean advance() {
+                    while (items.hasNext()) {
+                        next = items.next();
+                        if (isSelected(next)) {
+                            return true;
+                        }
+                    }
+                    next = null;
+                    return false;
+                }
+            };
+        } else if (inverted) {
+            return () -> new OrdinalIterator(scope, selection) {
+                private final Iterator<Integer> ordinals = store.ordinals().iterator();
+
+                @Override
+                int nextOrdinal() {
+                    return ordinals.hasNext() ? ordinals.next() : -1;
+                }
+            };
+        }
+        return () -> {
+            int[] ordinals = selectionOrder();
+            int size = orderSize;
+            return new OrdinalIterator(selection, null) {
+                private int index;
+
+                @Override
+                int nextOrdinal() {
+                    return index < size ? ordinals[index++] : -1;
+                }
+            };
+        };
+    }
+
+    /**
+     * The ordinals of the selected items in insertion order. Ordinals are reused, so they have to be sorted by their
+     * sequence number. The order is kept until the selection changes.
+     */
+    private int[] selectionOrder() {
+        if (!orderValid) {
+            if (order.length < count) {
+                order = new int[count];
+            }
+            int size = 0;
+            for (int ordinal = selection.nextSetBit(0); ordinal >= 0; ordinal = selection.nextSetBit(ordinal + 1)) {
+                order[size++] = ordinal;
+            }
+            SortedIndex.sort(order, 0, size, (o1, o2) -> Integer.compare(store.sequence(o1), store.sequence(o2)));
+            orderSize = size;
+            orderValid = true;
+        }
+        return order;
     }
 
     public boolean hasSelection() {
-        return !selection.isEmpty();
+        return getSelectionCount() != 0;
     }
 
     public boolean isSelected(T item) {
-        return selection.containsKey(identifier.apply(item));
+        int ordinal = ordinal(item);
+        if (ordinal < 0) {
+            return inverted && scope == null; // not deselected after selecting all loaded items
+        }
+        if (inverted) {
+            return (scope == null || scope.get(ordinal)) && !selection.get(ordinal);
+        }
+        return selection.get(ordinal);
+    }
+
+    /**
+     * Returns whether the selection is defined as all items matching the current filters except the deselected items.
+     */
+    public boolean isInverted() {
+        return inverted;
     }
 
     public int getSelectionCount() {
-        return selection.size();
+        if (inverted && scope == null) {
+            return loaded.size() - count;
+        } else if (inverted) {
+            return scope.cardinality() - scope.andCardinality(selection);
+        }
+        return count;
+    }
+
+    /** Returns the number of selected items which match the current filters. */
+    public int getFilteredSelectionCount() {
+        if (scope == null || inverted) {
+            return getSelectionCount();
+        }
+        return selection.andCardinality(scope);
+    }
+
+    /**
+     * Returns whether the selection state of all items might have changed since the displays have been updated. If
+     * {@code false}, only the items returned by {@link #getChangedItems()} have been (de)selected.
+     */
+    public boolean isAllChanged() {
+        return allChanged;
+    }
+
+    /** Returns the items which have been (de)selected since the displays have been updated. */
+    public Iterable<T> getChangedItems() {
+        return () -> new OrdinalIterator(changes, null) {
+            private int ordinal = -1;
+
+            @Override
+            int nextOrdinal() {
+                ordinal = changes.nextSetBit(ordinal + 1);
+                return ordinal;
+            }
+        };
+    }
+
+    private int ordinal(T item) {
+        int ordinal = store.identityOrdinal(item);
+        return ordinal >= 0 ? ordinal : store.ordinal(identifier.apply(item));
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    /** The items matching the current filters of a data provider which loads the items page by page. */
+    interface Scope<T> {
+
+        /** The number of all items matching the current filters */
+        int size();
+
+        /** The loaded items */
+        Iterable<T> items();
+    }
+
+    /**
+     * Iterates over the items of the ordinals which are in {@code include} and not in {@code exclude}. Subclasses
+     * provide the ordinals in iteration order.
+     */
+    private abstract class OrdinalIterator implements Iterator<T> {
+
+        private final Bits include;
+        private final Bits exclude;
+        private int next;
+        private boolean advanced;
+
+        OrdinalIterator(Bits include, Bits exclude) {
+            this.include = include;
+            this.exclude = exclude;
+        }
+
+        /** Returns the next ordinal or -1 if there are no more ordinals. */
+        abstract int nextOrdinal();
+
+        @Override
+        public boolean hasNext() {
+            if (!advanced) {
+                next = advance();
+                advanced = true;
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            return store.get(next);
+        }
+
+        private int advance() {
+            for (int ordinal = nextOrdinal(); ordinal >= 0; ordinal = nextOrdinal()) {
+                if (include.get(ordinal) && (exclude == null || !exclude.get(ordinal))) {
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
     }
 }
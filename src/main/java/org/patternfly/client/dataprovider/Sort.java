@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative sort order made of one or more sort keys. Use {@link Fields#comparator(Sort)} to sort the items on the
+ * client.
+ *
+ * <p>
+ * Sorts are immutable. The string representation lists the fields separated by {@code ,}. Descending keys are
+ * prefixed with {@code -}, e.g. {@code name,-size}. Use {@link #parse(String)} to parse it and {@link #toJson()} to
+ * send the sort order as JSON.
+ * </p>
+ */
+public class Sort {
+
+    public static Sort by(String field) {
+        return by(field, true);
+    }
+
+    public static Sort by(String field, boolean ascending) {
+        return new Sort(Collections.singletonList(new Key(field, ascending)));
+    }
+
+    /**
+     * Parses the string representation of a sort order.
+     *
+     * @throws IllegalArgumentException if the string is not a valid sort order, e.g. if it's empty or if it contains
+     *                                  an empty key like {@code name,}
+     */
+    public static Sort parse(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            throw new IllegalArgumentException("Empty sort order");
+        }
+        List<Key> keys = new ArrayList<>();
+        for (String part : sort.split(",", -1)) { // keep trailing empty keys to reject them
+            boolean ascending = true;
+            String field = part;
+            if (part.startsWith("-") || part.startsWith("+")) {
+                ascending = part.startsWith("+");
+                field = part.substring(1);
+            }
+            if (field.isEmpty()) {
+                throw new IllegalArgumentException("Missing field in sort order '" + sort + "'");
+            }
+            keys.add(new Key(field, ascending));
+        }
+        return new Sort(Collections.unmodifiableList(keys));
+    }
+
+    private final List<Key> keys;
+
+    private Sort(List<Key> keys) {
+        this.keys = keys;
+    }
+
+    /** Returns a new sort order which sorts by the specified field if the current keys are equal. */
+    public Sort then(String field) {
+        return then(field, true);
+    }
+
+    public Sort then(String field, boolean ascending) {
+        List<Key> keys = new ArrayList<>(this.keys);
+        keys.add(new Key(field, ascending));
+        return new Sort(Collections.unmodifiableList(keys));
+    }
+
+    /** Returns a new sort order with all keys in the opposite direction. */
+    public Sort reversed() {
+        List<Key> keys = new ArrayList<>();
+        for (Key key : this.keys) {
+            keys.add(new Key(key.field, !key.ascending));
+        }
+        return new Sort(Collections.unmodifiableList(keys));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Sort)) {
+            return false;
+        }
+        Sort sort = (Sort) o;
+        return keys.equals(sort.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return keys.hashCode();
+    }
+
+    /** Returns the compact string representation which can be parsed using {@link #parse(String)}. */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            if (!key.ascending) {
+                builder.append('-');
+            }
+            builder.append(key.field);
+        }
+        return builder.toString();
+    }
+
+    /** Returns the JSON representation: {@code [{"field":"name","asc":true},...]}. */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"field\":");
+            Filter.writeJsonString(builder, key.field);
+            builder.append(",\"asc\":").append(key.ascending).append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    public List<Key> getKeys() {
+        return keys;
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    public static class Key {
+
+        private final String field;
+        private final boolean ascending;
+
+        Key(String field, boolean ascending) {
+            if (field == null || !Filter.isField(field)) {
+                throw new IllegalArgumentException("Invalid field name: '" + field + "'");
+            }
+            this.field = field;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return ascending == key.ascending && field.equals(key.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * field.hashCode() + (ascending ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return (ascending ? "" : "-") + field;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+    }
+}
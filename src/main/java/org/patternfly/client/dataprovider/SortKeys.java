@@ -0,0 +1,450 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Comparator made of one or more sort keys. Each key is extracted from an item by a function:
+ *
+ * <pre>
+ * SortKeys&lt;Entry&gt; sortKeys = SortKeys.byIgnoreCase(Entry::getName).then(Entry::getModified, false);
+ * dataProvider.sort(new SortInfo&lt;&gt;("name", sortKeys, true));
+ * </pre>
+ *
+ * <p>
+ * Used as a plain comparator, the keys are extracted for each comparison. The {@link DataProvider} however recognizes
+ * sort keys and extracts the keys of each item only once per sort (decorate-sort-undecorate). Expensive conversions
+ * like lower casing, parsing dates or computing collation keys should therefore be done in the key functions rather
+ * than in a comparator.
+ * </p>
+ *
+ * <p>
+ * Keys should be numbers, strings or implement {@link Comparable}. Numbers are compared numerically. {@code null} keys
+ * are sorted last. Use {@link #byInt(ToIntFunction)}, {@link #byLong(ToLongFunction)} or {@link
+ * #byDouble(ToDoubleFunction)} for numeric keys: they are neither boxed when comparing nor when caching the keys.
+ * </p>
+ */
+public class SortKeys<T> implements Comparator<T> {
+
+    public static <T, K extends Comparable<? super K>> SortKeys<T> by(Function<T, K> key) {
+        return by(key, true);
+    }
+
+    public static <T, K extends Comparable<? super K>> SortKeys<T> by(Function<T, K> key, boolean ascending) {
+        return appendObject(null, key, ascending);
+    }
+
+    /** Sorts by the lower case value of the key. */
+    public static <T> SortKeys<T> byIgnoreCase(Function<T, String> key) {
+        return by(lowerCase(key), true);
+    }
+
+    public static <T> SortKeys<T> byInt(ToIntFunction<T> key) {
+        return byInt(key, true);
+    }
+
+    public static <T> SortKeys<T> byInt(ToIntFunction<T> key, boolean ascending) {
+        return appendInt(null, key, ascending);
+    }
+
+    public static <T> SortKeys<T> byLong(ToLongFunction<T> key) {
+        return byLong(key, true);
+    }
+
+    public static <T> SortKeys<T> byLong(ToLongFunction<T> key, boolean ascending) {
+        return appendLong(null, key, ascending);
+    }
+
+    public static <T> SortKeys<T> byDouble(ToDoubleFunction<T> key) {
+        return byDouble(key, true);
+    }
+
+    public static <T> SortKeys<T> byDouble(ToDoubleFunction<T> key, boolean ascending) {
+        return appendDouble(null, key, ascending);
+    }
+
+    private static <T> Function<T, String> lowerCase(Function<T, String> key) {
+        return item -> {
+            String value = key.apply(item);
+            return value != null ? value.toLowerCase() : null;
+        };
+    }
+
+    /** Returns new sort keys with the key appended to the specified sort keys, which can be {@code null}. */
+    static <T> SortKeys<T> appendObject(SortKeys<T> sortKeys, Function<T, ?> key, boolean ascending) {
+        return append(sortKeys, new ObjectKey<>(key, ascending));
+    }
+
+    static <T> SortKeys<T> appendInt(SortKeys<T> sortKeys, ToIntFunction<T> key, boolean ascending) {
+        return append(sortKeys, new IntKey<>(key, ascending));
+    }
+
+    static <T> SortKeys<T> appendLong(SortKeys<T> sortKeys, ToLongFunction<T> key, boolean ascending) {
+        return append(sortKeys, new LongKey<>(key, ascending));
+    }
+
+    static <T> SortKeys<T> appendDouble(SortKeys<T> sortKeys, ToDoubleFunction<T> key, boolean ascending) {
+        return append(sortKeys, new DoubleKey<>(key, ascending));
+    }
+
+    private static <T> SortKeys<T> append(SortKeys<T> sortKeys, Key<T> key) {
+        List<Key<T>> keys = sortKeys != null ? new ArrayList<>(sortKeys.keys) : new ArrayList<>();
+        keys.add(key);
+        return new SortKeys<>(keys);
+    }
+
+    private final List<Key<T>> keys;
+
+    private SortKeys(List<Key<T>> keys) {
+        this.keys = keys;
+    }
+
+    /** Returns new sort keys which additionally sort by the specified key if the current keys are equal. */
+    public <K extends Comparable<? super K>> SortKeys<T> then(Function<T, K> key) {
+        return then(key, true);
+    }
+
+    public <K extends Comparable<? super K>> SortKeys<T> then(Function<T, K> key, boolean ascending) {
+        return appendObject(this, key, ascending);
+    }
+
+    public SortKeys<T> thenIgnoreCase(Function<T, String> key) {
+        return then(lowerCase(key), true);
+    }
+
+    public SortKeys<T> thenInt(ToIntFunction<T> key, boolean ascending) {
+        return appendInt(this, key, ascending);
+    }
+
+    public SortKeys<T> thenLong(ToLongFunction<T> key, boolean ascending) {
+        return appendLong(this, key, ascending);
+    }
+
+    public SortKeys<T> thenDouble(ToDoubleFunction<T> key, boolean ascending) {
+        return appendDouble(this, key, ascending);
+    }
+
+    /** Returns sort keys with all keys in the opposite direction. */
+    @Override
+    public SortKeys<T> reversed() {
+        List<Key<T>> keys = new ArrayList<>();
+        for (Key<T> key : this.keys) {
+            keys.add(key.reversed());
+        }
+        return new SortKeys<>(keys);
+    }
+
+    /** If the other comparator are sort keys, too, the result are sort keys which combine the keys of both. */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Comparator<T> thenComparing(Comparator<? super T> other) {
+        if (other instanceof SortKeys) {
+            List<Key<T>> keys = new ArrayList<>(this.keys);
+            keys.addAll(((SortKeys<T>) other).keys);
+            return new SortKeys<>(keys);
+        }
+        return Comparator.super.thenComparing(other);
+    }
+
+    @Override
+    public int compare(T item1, T item2) {
+        for (int i = 0; i < keys.size(); i++) {
+            int result = keys.get(i).compare(item1, item2);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns an empty table for the extracted keys of items. */
+    Extracted<T> extracted() {
+        return new Extracted<>(keys);
+    }
+
+    /** Compares two key values: nulls last, numbers numerically, same comparable types naturally, others as strings. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(Object value1, Object value2) {
+        if (value1 == null || value2 == null) {
+            return value1 == null ? (value2 == null ? 0 : 1) : -1;
+        }
+        if (value1 instanceof Number && value2 instanceof Number) {
+            return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+        }
+        if (value1 instanceof Comparable && value1.getClass() == value2.getClass()) {
+            return ((Comparable) value1).compareTo(value2);
+        }
+        return String.valueOf(value1).compareTo(String.valueOf(value2));
+    }
+
+    // ------------------------------------------------------ extracted keys
+
+    /**
+     * The extracted keys of items by ordinal. There's one column per key. Numeric keys are stored in primitive arrays.
+     */
+    static class Extracted<T> {
+
+        private final List<Column<T>> columns;
+        private int length;
+
+        Extracted(List<Key<T>> keys) {
+            this.columns = new ArrayList<>(keys.size());
+            for (Key<T> key : keys) {
+                columns.add(key.column());
+            }
+        }
+
+        /** Extracts and stores the keys of the item. */
+        void extract(int ordinal, T item) {
+            if (ordinal >= length) {
+                length = Math.max(ordinal + 1, 2 * length);
+                for (Column<T> column : columns) {
+                    column.grow(length);
+                }
+            }
+            for (Column<T> column : columns) {
+                column.extract(ordinal, item);
+            }
+        }
+
+        /** Compares the stored keys of two items. */
+        int compare(int ordinal1, int ordinal2) {
+            for (int i = 0; i < columns.size(); i++) {
+                int result = columns.get(i).compare(ordinal1, ordinal2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private interface Column<T> {
+
+        void grow(int length);
+
+        void extract(int ordinal, T item);
+
+        int compare(int ordinal1, int ordinal2);
+    }
+
+    // ------------------------------------------------------ keys
+
+    private abstract static class Key<T> {
+
+        final boolean ascending;
+
+        Key(boolean ascending) {
+            this.ascending = ascending;
+        }
+
+        abstract Key<T> reversed();
+
+        abstract int compare(T item1, T item2);
+
+        abstract Column<T> column();
+    }
+
+    private static class ObjectKey<T> extends Key<T> {
+
+        final Function<T, ?> function;
+
+        ObjectKey(Function<T, ?> function, boolean ascending) {
+            super(ascending);
+            this.function = function;
+        }
+
+        @Override
+        Key<T> reversed() {
+            return new ObjectKey<>(function, !ascending);
+        }
+
+        @Override
+        int compare(T item1, T item2) {
+            return compareKeys(function.apply(item1), function.apply(item2));
+        }
+
+        int compareKeys(Object value1, Object value2) {
+            if (value1 == null || value2 == null) {
+                return compareValues(value1, value2); // nulls last regardless of the direction
+            }
+            int result = compareValues(value1, value2);
+            return ascending ? result : -result;
+        }
+
+        @Override
+        Column<T> column() {
+            return new Column<T>() {
+                Object[] values = new Object[0];
+
+                @Override
+                public void grow(int length) {
+                    values = Arrays.copyOf(values, length);
+                }
+
+                @Override
+                public void extract(int ordinal, T item) {
+                    values[ordinal] = function.apply(item);
+                }
+
+                @Override
+                public int compare(int ordinal1, int ordinal2) {
+                    return compareKeys(values[ordinal1], values[ordinal2]);
+                }
+            };
+        }
+    }
+
+    private static class IntKey<T> extends Key<T> {
+
+        final ToIntFunction<T> function;
+
+        IntKey(ToIntFunction<T> function, boolean ascending) {
+            super(ascending);
+            this.function = function;
+        }
+
+        @Override
+        Key<T> reversed() {
+            return new IntKey<>(function, !ascending);
+        }
+
+        @Override
+        int compare(T item1, T item2) {
+            int result = Integer.compare(function.applyAsInt(item1), function.applyAsInt(item2));
+            return ascending ? result : -result;
+        }
+
+        @Override
+        Column<T> column() {
+            return new Column<T>() {
+                int[] values = new int[0];
+
+                @Override
+                public void grow(int length) {
+                    values = Arrays.copyOf(values, length);
+                }
+
+                @Override
+                public void extract(int ordinal, T item) {
+                    values[ordinal] = function.applyAsInt(item);
+                }
+
+                @Override
+                public int compare(int ordinal1, int ordinal2) {
+                    int result = Integer.compare(values[ordinal1], values[ordinal2]);
+                    return ascending ? result : -result;
+                }
+            };
+        }
+    }
+
+    private static class LongKey<T> extends Key<T> {
+
+        final ToLongFunction<T> function;
+
+        LongKey(ToLongFunction<T> function, boolean ascending) {
+            super(ascending);
+            this.function = function;
+        }
+
+        @Override
+        Key<T> reversed() {
+            return new LongKey<>(function, !ascending);
+        }
+
+        @Override
+        int compare(T item1, T item2) {
+            int result = Long.compare(function.applyAsLong(item1), function.applyAsLong(item2));
+            return ascending ? result : -result;
+        }
+
+        @Override
+        Column<T> column() {
+            return new Column<T>() {
+                long[] values = new long[0];
+
+                @Override
+                public void grow(int length) {
+                    values = Arrays.copyOf(values, length);
+                }
+
+                @Override
+                public void extract(int ordinal, T item) {
+                    values[ordinal] = function.applyAsLong(item);
+                }
+
+                @Override
+                public int compare(int ordinal1, int ordinal2) {
+                    int result = Long.compare(values[ordinal1], values[ordinal2]);
+                    return ascending ? result : -result;
+                }
+            };
+        }
+    }
+
+    private static class DoubleKey<T> extends Key<T> {
+
+        final ToDoubleFunction<T> function;
+
+        DoubleKey(ToDoubleFunction<T> function, boolean ascending) {
+            super(ascending);
+            this.function = function;
+        }
+
+        @Override
+        Key<T> reversed() {
+            return new DoubleKey<>(function, !ascending);
+        }
+
+        @Override
+        int compare(T item1, T item2) {
+            int result = Double.compare(function.applyAsDouble(item1), function.applyAsDouble(item2));
+            return ascending ? result : -result;
+        }
+
+        @Override
+        Column<T> column() {
+            return new Column<T>() {
+                double[] values = new double[0];
+
+                @Override
+                public void grow(int length) {
+                    values = Arrays.copyOf(values, length);
+                }
+
+                @Override
+                public void extract(int ordinal, T item) {
+                    values[ordinal] = function.applyAsDouble(item);
+                }
+
+                @Override
+                public int compare(int ordinal1, int ordinal2) {
+                    int result = Double.compare(values[ordinal1], values[ordinal2]);
+                    return ascending ? result : -result;
+                }
+            };
+        }
+    }
+}
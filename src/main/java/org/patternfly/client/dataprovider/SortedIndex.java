@@ -0,0 +1,265 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The ordinals of all items in a {@link ItemStore} sorted by a comparator. Items which are equal according to the
+ * comparator are kept in insertion order. Without a comparator the index holds the insertion order.
+ *
+ * <p>
+ * The index is built once per comparator. Single items are inserted and removed using a binary search.
+ * </p>
+ *
+ * <p>
+ * If the comparator are {@link SortKeys}, the keys of each item are extracted once and cached by ordinal (numeric keys
+ * in primitive arrays). The cached keys are compared instead of the items. Keys are extracted again if the item of
+ * an ordinal has changed or has been {@linkplain #invalidate(int) invalidated}.
+ * </p>
+ */
+class SortedIndex<T> {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final ItemStore<T> store;
+    private final OrdinalList order;
+    private OrdinalComparator comparator;
+    private KeyCache keyCache;
+
+    SortedIndex(ItemStore<T> store) {
+        this.store = store;
+        this.order = new OrdinalList();
+    }
+
+    /** Sorts all items of the store using the specified comparator, which can be {@code null}. */
+    void rebuild(Comparator<T> comparator) {
+        this.comparator = comparator(comparator);
+        order.clear();
+        for (int ordinal : store.ordinals()) {
+            order.add(ordinal);
+        }
+        if (comparator instanceof SortKeys) {
+            // extract or validate the keys of all items once, so that the sort compares the cached keys only
+            KeyCache cache = keyCache;
+            for (int i = 0; i < order.size(); i++) {
+                cache.ensureExtracted(order.get(i));
+            }
+            sort(order.array(), 0, order.size(), (ordinal1, ordinal2) -> {
+                int result = cache.keys.compare(ordinal1, ordinal2);
+                if (result != 0) {
+                    return result;
+                }
+                return Integer.compare(store.sequence(ordinal1), store.sequence(ordinal2));
+            });
+        } else if (comparator != null) {
+            sort(order.array(), 0, order.size(), this.comparator);
+        }
+    }
+
+    /**
+     * Returns a comparator for the ordinals of the items in the store. Items which are equal according to the specified
+     * comparator are compared by insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    OrdinalComparator comparator(Comparator<T> comparator) {
+        if (comparator == null) {
+            return (ordinal1, ordinal2) -> Integer.compare(store.sequence(ordinal1), store.sequence(ordinal2));
+        }
+        if (comparator instanceof SortKeys) {
+            SortKeys<T> sortKeys = (SortKeys<T>) comparator;
+            if (keyCache == null || keyCache.sortKeys != sortKeys) {
+                keyCache = new KeyCache(sortKeys);
+            }
+            KeyCache cache = keyCache;
+            return (ordinal1, ordinal2) -> {
+                int result = cache.compare(ordinal1, ordinal2);
+                if (result != 0) {
+                    return result;
+                }
+                return Integer.compare(store.sequence(ordinal1), store.sequence(ordinal2));
+            };
+        }
+        return (ordinal1, ordinal2) -> {
+            int result = comparator.compare(store.get(ordinal1), store.get(ordinal2));
+            if (result != 0) {
+                return result;
+            }
+            return Integer.compare(store.sequence(ordinal1), store.sequence(ordinal2));
+        };
+    }
+
+    /**
+     * Discards the cached sort keys of an item. Must be called <em>after</em> an item has been added to or replaced in
+     * the store, since the item might have been modified in place.
+     */
+    void invalidate(int ordinal) {
+        if (keyCache != null) {
+            keyCache.invalidate(ordinal);
+        }
+    }
+
+    /** Inserts the ordinal of an item which has been added to the store. */
+    void insert(int ordinal) {
+        order.insert(ordinal, comparator);
+    }
+
+    /**
+     * Removes the ordinal of an item. Must be called <em>before</em> the item is removed from or replaced in the store.
+     */
+    void remove(int ordinal) {
+        order.remove(ordinal, comparator);
+    }
+
+    int get(int index) {
+        return order.get(index);
+    }
+
+    int size() {
+        return order.size();
+    }
+
+    // ------------------------------------------------------ int sort
+
+    /**
+     * Returns the first {@code k} of {@code candidates[0, count)} in sorted order. Uses a bounded heap which needs
+     * O(count * log k) comparisons instead of O(count * log count) for sorting all candidates.
+     */
+    static int[] top(int[] candidates, int count, int k, OrdinalComparator comparator) {
+        int[] heap = new int[Math.min(k, count)]; // max heap: the root is the largest of the first k
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = candidates[i];
+            if (size < heap.length) {
+                // sift up
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if (comparator.compare(heap[parent], ordinal) >= 0) {
+                        break;
+                    }
+                    heap[index] = heap[parent];
+                    index = parent;
+                }
+                heap[index] = ordinal;
+            } else if (size > 0 && comparator.compare(ordinal, heap[0]) < 0) {
+                // replace the root and sift down
+                int index = 0;
+                while (true) {
+                    int child = 2 * index + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                        child++;
+                    }
+                    if (comparator.compare(heap[child], ordinal) <= 0) {
+                        break;
+                    }
+                    heap[index] = heap[child];
+                    index = child;
+                }
+                heap[index] = ordinal;
+            }
+        }
+        sort(heap, 0, size, comparator);
+        return heap;
+    }
+
+    /** Stable merge sort of {@code ordinals[from, to)}. */
+    static void sort(int[] ordinals, int from, int to, OrdinalComparator comparator) {
+        int[] buffer = new int[to - from];
+        mergeSort(ordinals, buffer, from, to, comparator);
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, OrdinalComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = a[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(a[j], value) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, comparator);
+        mergeSort(a, buffer, mid, to, comparator);
+        if (comparator.compare(a[mid - 1], a[mid]) <= 0) {
+            return; // already in order
+        }
+        int length = mid - from;
+        System.arraycopy(a, from, buffer, 0, length);
+        int i = 0;
+        int j = mid;
+        int k = from;
+        while (i < length && j < to) {
+            a[k++] = comparator.compare(a[j], buffer[i]) < 0 ? a[j++] : buffer[i++];
+        }
+        while (i < length) {
+            a[k++] = buffer[i++];
+        }
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    /** The extracted sort keys of the items by ordinal. */
+    private class KeyCache {
+
+        final SortKeys<T> sortKeys;
+        final SortKeys.Extracted<T> keys;
+        Object[] items; // the item the keys have been extracted from
+
+        KeyCache(SortKeys<T> sortKeys) {
+            this.sortKeys = sortKeys;
+            this.keys = sortKeys.extracted();
+            this.items = new Object[0];
+        }
+
+        int compare(int ordinal1, int ordinal2) {
+            ensureExtracted(ordinal1);
+            ensureExtracted(ordinal2);
+            return keys.compare(ordinal1, ordinal2);
+        }
+
+        void invalidate(int ordinal) {
+            if (ordinal < items.length) {
+                items[ordinal] = null;
+            }
+        }
+
+        void ensureExtracted(int ordinal) {
+            if (ordinal >= items.length) {
+                items = Arrays.copyOf(items, Math.max(store.length(), ordinal + 1));
+            }
+            T item = store.get(ordinal);
+            if (items[ordinal] != item) {
+                keys.extract(ordinal, item);
+                items[ordinal] = item;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface OrdinalComparator {
+
+        int compare(int ordinal1, int ordinal2);
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Inverted trigram index over the text fields of the items in a {@link ItemStore}. Answers case insensitive substring
+ * queries by intersecting the posting lists of the trigrams of the query and verifying the remaining candidates.
+ *
+ * <p>
+ * Each posting list holds the ordinals of the items containing the trigram in ascending order. Trigrams are taken from
+ * each field separately. The lower case text of the fields is kept per ordinal for the verification and for removing
+ * items from the index. Queries shorter than three characters are answered by scanning the cached texts.
+ * </p>
+ *
+ * <p>
+ * The index is built lazily by the first query after it has been {@linkplain #invalidate() invalidated}. Until then
+ * single items are inserted and removed incrementally.
+ * </p>
+ */
+class TextIndex<T> {
+
+    static final int GRAM = 3;
+    private static final char SEPARATOR = '\u0000'; // separates the fields in the cached text
+
+    private final ItemStore<T> store;
+    private final List<Function<T, String>> fields;
+    private final Map<String, Postings> postings;
+    private String[] texts; // lower case text of all fields by ordinal
+    private boolean valid;
+    private T lastItem; // the item added last and its text: filters test the item again right after adding
+    private String lastText;
+
+    TextIndex(ItemStore<T> store, List<Function<T, String>> fields) {
+        this.store = store;
+        this.fields = new ArrayList<>(fields);
+        this.postings = new HashMap<>();
+        this.texts = new String[0];
+    }
+
+    /** Returns whether the fields of the item contain the lower case query. */
+    boolean matches(T item, String lowerQuery) {
+        return (item == lastItem ? lastText : text(item)).contains(lowerQuery);
+    }
+
+    /** The index is rebuilt by the next query. Call this when all items of the store are replaced. */
+    void invalidate() {
+        valid = false;
+        lastItem = null;
+        lastText = null;
+    }
+
+    /** Adds the trigrams of an item which has been added to the store. */
+    void add(int ordinal, T item) {
+        if (!valid) {
+            return;
+        }
+        if (ordinal >= texts.length) {
+            texts = Arrays.copyOf(texts, Math.max(store.length(), ordinal + 1));
+        }
+        String text = text(item);
+        texts[ordinal] = text;
+        lastItem = item;
+        lastText = text;
+        forEachGram(text, gram -> {
+            Postings p = postings.get(gram);
+            if (p == null) {
+                p = new Postings();
+                postings.put(gram, p);
+            }
+            p.insert(ordinal);
+        });
+    }
+
+    /**
+     * Removes the trigrams of an item. Must be called <em>before</em> the item is removed from or replaced in the
+     * store.
+     */
+    void remove(int ordinal) {
+        if (!valid || ordinal >= texts.length || texts[ordinal] == null) {
+            return;
+        }
+        forEachGram(texts[ordinal], gram -> {
+            Postings p = postings.get(gram);
+            if (p != null) {
+                p.remove(ordinal);
+                if (p.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        });
+        texts[ordinal] = null;
+    }
+
+    /** Sets the ordinals of all items containing the lower case query in {@code result}. */
+    void query(String lowerQuery, Bits result) {
+        if (!valid) {
+            rebuild();
+        }
+        if (lowerQuery.length() < GRAM) {
+            for (int ordinal = 0; ordinal < texts.length; ordinal++) {
+                if (texts[ordinal] != null && texts[ordinal].contains(lowerQuery)) {
+                    result.set(ordinal);
+                }
+            }
+            return;
+        }
+
+        // the posting lists of all trigrams of the query, smallest first
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= lowerQuery.length(); i++) {
+            Postings p = postings.get(lowerQuery.substring(i, i + GRAM));
+            if (p == null) {
+                return; // no item contains this trigram
+            }
+            if (!lists.contains(p)) {
+                lists.add(p);
+            }
+        }
+        lists.sort((p1, p2) -> Integer.compare(p1.size, p2.size));
+
+        // intersect starting with the smallest list and verify the candidates
+        Postings smallest = lists.get(0);
+        for (int i = 0; i < smallest.size; i++) {
+            int ordinal = smallest.ordinals[i];
+            boolean candidate = true;
+            for (int j = 1; j < lists.size() && candidate; j++) {
+                candidate = lists.get(j).contains(ordinal);
+            }
+            if (candidate && texts[ordinal].contains(lowerQuery)) {
+                result.set(ordinal);
+            }
+        }
+    }
+
+    /** Number of distinct trigrams, for diagnostics and tests. */
+    int grams() {
+        if (!valid) {
+            rebuild();
+        }
+        return postings.size();
+    }
+
+    private void rebuild() {
+        postings.clear();
+        texts = new String[store.length()];
+        valid = true;
+        // in ascending order of the ordinals rather than in insertion order, so the ordinals are appended to the lists
+        Bits live = store.live();
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            add(ordinal, store.get(ordinal));
+        }
+    }
+
+    private String text(T item) {
+        if (fields.size() == 1) {
+            String value = fields.get(0).apply(item);
+            return value != null ? value.toLowerCase() : "";
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            String value = fields.get(i).apply(item);
+            if (value != null) {
+                builder.append(value.toLowerCase());
+            }
+        }
+        return builder.toString();
+    }
+
+    /** Calls the consumer once for each distinct trigram of the text which doesn't span two fields. */
+    private static void forEachGram(String text, Consumer<String> consumer) {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            String gram = text.substring(i, i + GRAM);
+            if (gram.indexOf(SEPARATOR) < 0 && seen.add(gram)) {
+                consumer.accept(gram);
+            }
+        }
+    }
+
+    // ------------------------------------------------------ inner classes
+
+    /** Sorted list of ordinals. */
+    private static class Postings {
+
+        int[] ordinals = new int[4];
+        int size;
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+
+        void insert(int ordinal) {
+            if (size > 0 && ordinals[size - 1] < ordinal) {
+                append(ordinal);
+                return;
+            }
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, 2 * size);
+            }
+            System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+            ordinals[index] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+                size--;
+            }
+        }
+
+        private void append(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, 2 * size);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.components;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import elemental2.dom.HTMLElement;
+import elemental2.dom.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Uses mocked elements which keep track of their children, since the tests don't run in a browser. */
+class ItemElementsTest {
+
+    private HTMLElement table;
+    private HTMLElement tbody;
+    private HTMLElement tfoot;
+    private List<Node> tableChildren;
+    private ItemElements itemElements;
+
+    @BeforeEach
+    void setUp() {
+        tableChildren = new ArrayList<>();
+        table = element(tableChildren);
+        tbody = element(new ArrayList<>());
+        tfoot = element(new ArrayList<>());
+        itemElements = new ItemElements();
+    }
+
+    @Test
+    void expandableTableWithFooter() {
+        // expandable tables add one tbody per item to the table itself
+        table.appendChild(tfoot);
+        itemElements.insertBefore(tfoot);
+
+        HTMLElement item1 = element(new ArrayList<>());
+        HTMLElement item2 = element(new ArrayList<>());
+        itemElements.add(table, item1);
+        itemElements.add(table, item2);
+        assertEquals(asList(item1, item2, tfoot), tableChildren);
+    }
+
+    @Test
+    void tableWithFooter() {
+        // item rows are added to the tbody, the footer is a sibling of the tbody
+        table.appendChild(tbody);
+        table.appendChild(tfoot);
+        itemElements.insertBefore(tfoot);
+
+        HTMLElement item = element(new ArrayList<>());
+        itemElements.add(tbody, item);
+        assertEquals(asList(tbody, tfoot), tableChildren);
+        assertEquals(tbody, item.parentNode);
+    }
+
+    /** Returns a mocked element which records its children in the specified list. */
+    private HTMLElement element(List<Node> children) {
+        HTMLElement element = mock(HTMLElement.class);
+        when(element.appendChild(any(Node.class))).thenAnswer(invocation -> {
+            Node child = invocation.getArgument(0);
+            children.remove(child);
+            children.add(child);
+            child.parentNode = element;
+            return child;
+        });
+        when(element.insertBefore(any(Node.class), any(Node.class))).thenAnswer(invocation -> {
+            Node child = invocation.getArgument(0);
+            Node reference = invocation.getArgument(1);
+            children.remove(child);
+            children.add(children.indexOf(reference), child);
+            child.parentNode = element;
+            return child;
+        });
+        return element;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingDataLoaderTest {
+
+    private static final int TOTAL = 10;
+
+    private List<Integer> loaded;
+    private List<PageQuery> queries;
+    private List<Runnable> responses;
+    private boolean deferred;
+    private int total;
+    private List<Integer> received;
+
+    @BeforeEach
+    void setUp() {
+        loaded = new ArrayList<>();
+        queries = new ArrayList<>();
+        responses = new ArrayList<>();
+        deferred = false;
+        total = TOTAL;
+        received = new ArrayList<>();
+    }
+
+    @Test
+    void cache() {
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 2, false);
+        loader.load(query(0), callback());
+        loader.load(query(1), callback());
+        loader.load(query(0), callback());
+        assertEquals(2, loader.getMisses());
+        assertEquals(1, loader.getHits());
+
+        loader.load(query(2), callback()); // evicts page 1
+        loader.load(query(1), callback());
+        assertEquals(4, loader.getMisses());
+        assertEquals(2, loader.size());
+        assertEquals(4, loaded.size());
+
+        loader.invalidate();
+        loader.load(query(1), callback());
+        assertEquals(5, loader.getMisses());
+    }
+
+    @Test
+    void prefetch() {
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 10, true);
+        loader.load(query(0), callback());
+        assertEquals(asList(0, 1), loaded);
+
+        loader.load(query(1), callback());
+        assertEquals(1, loader.getHits());
+        assertEquals(asList(0, 1, 2), loaded);
+
+        loader.load(query(TOTAL - 1), callback());
+        assertEquals(asList(0, 1, 2, 9, 8), loaded);
+    }
+
+    @Test
+    void waitForPrefetch() {
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 10, true);
+        deferred = true;
+        loader.load(query(0), callback());
+        responses.get(0).run(); // page 0 triggers the prefetch of page 1
+        loader.load(query(1), callback()); // waits for the prefetch
+        assertEquals(asList(0, 1), loaded);
+
+        responses.get(1).run();
+        assertEquals(asList(0, 1), received);
+    }
+
+    @Test
+    void prefetchUnknownTotal() {
+        total = PageInfo.UNKNOWN_TOTAL;
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 10, true);
+        loader.load(query(3), callback());
+        assertEquals(asList(3, 4, 2), loaded);
+    }
+
+    @Test
+    void prefetchCursor() {
+        total = PageInfo.UNKNOWN_TOTAL;
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 10, true, String::valueOf);
+        loader.load(query(0).withCursor(0, null, null), callback());
+        assertEquals(asList(0, 1), loaded);
+        assertEquals(query(0).withCursor(1, "0", null), queries.get(1));
+
+        loader.load(query(0).withCursor(2, "1", null), callback());
+        assertEquals(query(0).withCursor(3, "2", null), queries.get(3));
+        assertEquals(query(0).withCursor(1, null, "2"), queries.get(4));
+    }
+
+    @Test
+    void cancel() {
+        CachingDataLoader<Integer> loader = new CachingDataLoader<>(this::load, 10, true);
+        deferred = true;
+        loader.load(query(0), callback());
+        loader.cancel(query(0));
+        responses.get(0).run();
+        assertEquals(emptyList(), received);
+        assertEquals(asList(0), loaded); // no prefetch around a cancelled page
+
+        loader.load(query(0), callback()); // but the response has been cached
+        assertEquals(1, loader.getHits());
+        assertEquals(asList(0), received);
+    }
+
+    private void load(PageQuery query, DataLoader.Callback<Integer> callback) {
+        loaded.add(query.getPage());
+        queries.add(query);
+        Runnable response = () -> callback.onSuccess(singletonList(query.getPage()), total);
+        if (deferred) {
+            responses.add(response);
+        } else {
+            response.run();
+        }
+    }
+
+    private PageQuery query(int page) {
+        return new PageQuery(page, 1, null, true, emptyMap());
+    }
+
+    private DataLoader.Callback<Integer> callback() {
+        return new DataLoader.Callback<Integer>() {
+            @Override
+            public void onSuccess(List<Integer> items, int total, PageInfo.TotalKind totalKind) {
+                received.addAll(items);
+            }
+
+            @Override
+            public void onTotal(int total) {
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                throw new AssertionError(error);
+            }
+        };
+    }
+}
@@ -0,0 +1,679 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingInt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataProviderTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private DataProvider<Item> dataProvider;
+    private RecordingDisplay display;
+
+    @BeforeEach
+    void setUp() {
+        dataProvider = new DataProvider<>(item -> item.id, PAGE_SIZE);
+        display = new RecordingDisplay();
+        dataProvider.addDisplay(display);
+        dataProvider.update(new Item[]{
+                new Item("a", 5), new Item("b", 3), new Item("c", 8), new Item("d", 1), new Item("e", 6)
+        });
+    }
+
+    @Test
+    void add() {
+        dataProvider.add(new Item("f", 2));
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "c", "d", "e", "f");
+        assertEquals(6, display.pageInfo.getTotal());
+    }
+
+    @Test
+    void addSorted() {
+        dataProvider.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        dataProvider.add(new Item("f", 2));
+        dataProvider.add(new Item("g", 7));
+        assertIds(dataProvider.getFilteredItems(), "d", "f", "b", "a", "e", "g", "c");
+        assertIds(display.items, "d", "f", "b");
+    }
+
+    @Test
+    void addFiltered() {
+        dataProvider.addFilter("even", item -> item.value % 2 == 0);
+        dataProvider.add(new Item("f", 2));
+        dataProvider.add(new Item("g", 7));
+        assertIds(dataProvider.getFilteredItems(), "c", "e", "f");
+        assertTrue(dataProvider.contains(new Item("g", 7)));
+        assertTrue(dataProvider.hasFilters());
+    }
+
+    @Test
+    void remove() {
+        dataProvider.gotoNextPage();
+        dataProvider.remove(new Item("a", 5));
+        assertIds(dataProvider.getFilteredItems(), "b", "c", "d", "e");
+        assertIds(display.items, "e");
+        assertEquals(1, display.pageInfo.getPage());
+    }
+
+    @Test
+    void filteredAndVisibleItems() {
+        Iterable<Item> filtered = dataProvider.getFilteredItems();
+        Iterable<Item> visible = dataProvider.getVisibleItems();
+        dataProvider.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        dataProvider.addFilter("gt1", item -> item.value > 1);
+        assertIds(filtered, "b", "a", "e", "c");
+        assertIds(visible, "b", "a", "e");
+
+        // the views are live: removing and adding items is reflected without asking for the items again
+        dataProvider.remove(new Item("b", 3));
+        dataProvider.add(new Item("f", 4)); // reuses the ordinal of "b"
+        dataProvider.add(new Item("g", 0)); // filtered
+        assertIds(filtered, "f", "a", "e", "c");
+        assertIds(visible, "f", "a", "e");
+        assertTrue(dataProvider.isVisible(new Item("f", 4)));
+        assertFalse(dataProvider.isVisible(new Item("c", 8))); // filtered, but on the next page
+        assertFalse(dataProvider.isVisible(new Item("g", 0)));
+
+        dataProvider.gotoNextPage();
+        assertIds(visible, "c");
+        assertTrue(dataProvider.isVisible(new Item("c", 8)));
+        assertFalse(dataProvider.isVisible(new Item("a", 5)));
+    }
+
+    @Test
+    void removeSelected() {
+        Item b = dataProvider.getItem("b");
+        dataProvider.select(b, true);
+        dataProvider.remove(b);
+        assertFalse(dataProvider.getSelectionInfo().hasSelection());
+    }
+
+    @Test
+    void selectionOrder() {
+        dataProvider.select(dataProvider.getItem("d"), true);
+        dataProvider.select(dataProvider.getItem("b"), true);
+        dataProvider.remove(new Item("a", 5));
+        dataProvider.add(new Item("f", 2)); // reuses the ordinal of "a"
+        dataProvider.select(dataProvider.getItem("f"), true);
+        assertIds(dataProvider.getSelectionInfo().getSelectedItems(), "b", "d", "f");
+
+        dataProvider.select(dataProvider.getItem("d"), false);
+        dataProvider.remove(dataProvider.getItem("b"));
+        dataProvider.select(dataProvider.getItem("c"), true);
+        assertIds(dataProvider.getSelectionInfo().getSelectedItems(), "c", "f");
+        assertIds(dataProvider.getSelectionInfo().getSelectedItems(), "c", "f"); // cached order
+
+        dataProvider.selectAll();
+        assertIds(dataProvider.getSelectionInfo().getSelectedItems(), "c", "d", "e", "f");
+    }
+
+    @Test
+    void selectUnknown() {
+        List<Item> events = new ArrayList<>();
+        dataProvider.onSelect(events::add);
+        dataProvider.select(new Item("x", 0), true);
+        assertTrue(events.isEmpty());
+        assertFalse(dataProvider.getSelectionInfo().hasSelection());
+    }
+
+    @Test
+    void replace() {
+        dataProvider.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        dataProvider.select(dataProvider.getItem("c"), true);
+        dataProvider.replace(new Item("c", 0));
+        dataProvider.replace(new Item("x", 0));
+        assertIds(dataProvider.getFilteredItems(), "c", "d", "b", "a", "e");
+        assertEquals(0, dataProvider.getSelectionInfo().getSelection().get(0).value);
+    }
+
+    @Test
+    void apply() {
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        int updates = display.updates;
+        dataProvider.apply(new Changes<Item>()
+                .add(new Item("f", 9))
+                .remove(new Item("a", 5))
+                .replace(new Item("d", 4))
+                .replace(new Item("b", 0)));
+        assertIds(dataProvider.getFilteredItems(), "c", "d", "e", "f");
+        assertEquals(updates + 1, display.updates);
+    }
+
+    @Test
+    void cachedFilters() {
+        int[] evaluations = new int[1];
+        dataProvider.addFilter("gt2", item -> {
+            evaluations[0]++;
+            return item.value > 2;
+        });
+        assertEquals(5, evaluations[0]);
+        dataProvider.addFilter("odd", item -> item.value % 2 == 1);
+        dataProvider.addFilter("odd", item -> item.value % 2 == 1);
+        dataProvider.removeFilter("odd");
+        assertEquals(5, evaluations[0]);
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "c", "e");
+
+        dataProvider.add(new Item("f", 4));
+        assertEquals(6, evaluations[0]);
+    }
+
+    @Test
+    void filterOrder() {
+        int[] expensive = new int[1];
+        dataProvider.batch(dp -> {
+            dp.addFilter("expensive", item -> {
+                expensive[0]++;
+                return true;
+            }, 10000);
+            dp.addFilter("cheap", item -> item.value == 8, 10);
+        });
+        assertIds(dataProvider.getFilteredItems(), "c");
+        assertEquals(1, expensive[0]); // only evaluated for the item which passed the cheap filter
+
+        List<FilterStats> stats = dataProvider.getFilterStats();
+        assertEquals("cheap", stats.get(0).getId());
+        assertEquals(5, stats.get(0).getEvaluations());
+        assertEquals(0.2, stats.get(0).getPassRate(), 0.001);
+        assertEquals("expensive", stats.get(1).getId());
+
+        dataProvider.removeFilter("cheap");
+        assertEquals(5, expensive[0]); // evaluated for the remaining items
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "c", "d", "e");
+    }
+
+    @Test
+    void rangeFilter() {
+        int[] extractions = new int[1];
+        dataProvider.addRangeIndex("value", item -> {
+            extractions[0]++;
+            return item.value;
+        });
+        dataProvider.addFilter("notC", item -> !item.id.equals("c"));
+        dataProvider.addRangeFilter("range", "value", 3, 6);
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "e");
+        assertEquals("range", dataProvider.getFilterStats().get(0).getId()); // indexed filters first
+        assertEquals(5, extractions[0]);
+
+        dataProvider.add(new Item("f", 4));
+        dataProvider.replace(new Item("a", 9));
+        dataProvider.remove(new Item("b", 3));
+        dataProvider.addRangeFilter("range", "value", 4, Double.POSITIVE_INFINITY);
+        assertIds(dataProvider.getFilteredItems(), "a", "e", "f");
+        assertEquals(7, extractions[0]); // incremental updates, no rebuild
+
+        dataProvider.update(new Item[]{new Item("x", 1), new Item("y", 10)});
+        dataProvider.addRangeFilter("range", "value", Double.NEGATIVE_INFINITY, 5);
+        assertIds(dataProvider.getFilteredItems(), "x");
+    }
+
+    @Test
+    void textFilter() {
+        dataProvider.update(new Item[]{
+                new Item("Alpha", 1), new Item("alphabet", 2), new Item("Beta", 3), new Item("gamma", 4)
+        });
+        dataProvider.addTextIndex("id", item -> item.id);
+        dataProvider.addTextFilter("search", "id", "ALPH");
+        assertIds(dataProvider.getFilteredItems(), "Alpha", "alphabet");
+        dataProvider.addTextFilter("search", "id", "ma");
+        assertIds(dataProvider.getFilteredItems(), "gamma");
+        dataProvider.addTextFilter("search", "id", "phab");
+        assertIds(dataProvider.getFilteredItems(), "alphabet");
+
+        dataProvider.remove(new Item("alphabet", 2));
+        dataProvider.add(new Item("Delphi", 5));
+        dataProvider.addTextFilter("search", "id", "lph");
+        assertIds(dataProvider.getFilteredItems(), "Alpha", "Delphi");
+        dataProvider.addTextFilter("search", "id", "xyz");
+        assertIds(dataProvider.getFilteredItems());
+
+        dataProvider.addTextIndex("all", asList(item -> item.id, item -> "#" + item.value));
+        dataProvider.addTextFilter("search", "all", "elphi"); // built after "Delphi" has reused an ordinal
+        assertIds(dataProvider.getFilteredItems(), "Delphi");
+        dataProvider.addTextFilter("search", "all", "#3");
+        assertIds(dataProvider.getFilteredItems(), "Beta");
+        dataProvider.addTextFilter("search", "all", "eta#"); // doesn't span fields
+        assertIds(dataProvider.getFilteredItems());
+    }
+
+    @Test
+    void facets() {
+        int[] extractions = new int[1];
+        dataProvider.addFacet("parity", item -> {
+            extractions[0]++;
+            return item.value % 2 == 0 ? "even" : "odd";
+        });
+        assertEquals("{odd=3, even=2}", dataProvider.getFacetCounts("parity").toString());
+
+        // the own filter is ignored, other filters are not
+        dataProvider.addFilter("parity", item -> item.value % 2 == 0);
+        dataProvider.addFilter("gt1", item -> item.value > 1);
+        assertIds(dataProvider.getFilteredItems(), "c", "e");
+        assertEquals("{odd=2, even=2}", dataProvider.getFacetCounts("parity").toString());
+        assertEquals("{odd=2, even=2}", display.facetCounts.get("parity").toString());
+        assertEquals(5, extractions[0]);
+
+        dataProvider.add(new Item("f", 7));
+        dataProvider.replace(new Item("c", 9));
+        dataProvider.remove(new Item("b", 3));
+        assertEquals("{odd=3, even=1}", dataProvider.getFacetCounts("parity").toString());
+        dataProvider.removeFilter("gt1");
+        assertEquals("{odd=4, even=1}", dataProvider.getFacetCounts("parity").toString());
+        assertEquals(8, extractions[0]); // only for items which have been added to the counted items
+    }
+
+    @Test
+    void aggregates() {
+        int[] extractions = new int[1];
+        dataProvider.addAggregate("value", item -> {
+            extractions[0]++;
+            return item.value;
+        });
+        Aggregate aggregate = dataProvider.getAggregate("value");
+        assertEquals(5, aggregate.getCount());
+        assertEquals(23, aggregate.getSum());
+        assertEquals(1, aggregate.getMin());
+        assertEquals(8, aggregate.getMax());
+
+        dataProvider.addFilter("notD", item -> !item.id.equals("d"));
+        dataProvider.remove(new Item("c", 8));
+        aggregate = dataProvider.getAggregate("value");
+        assertEquals(3, aggregate.getCount());
+        assertEquals(14, aggregate.getSum());
+        assertEquals(3, aggregate.getMin());
+        assertEquals(6, aggregate.getMax()); // correct after removing the maximum
+        assertEquals(14 / 3.0, aggregate.getAverage());
+        assertEquals(6, display.aggregates.get("value").getMax());
+
+        dataProvider.replace(new Item("a", 2));
+        dataProvider.removeFilter("notD");
+        assertEquals(1, dataProvider.getAggregate("value").getMin());
+        assertEquals(12, dataProvider.getAggregate("value").getSum());
+        assertEquals(7, extractions[0]); // only for items which enter the filtered items
+    }
+
+    @Test
+    void sortedIndex() {
+        int[] comparisons = new int[1];
+        dataProvider.sort(new SortInfo<>("value", (i1, i2) -> {
+            comparisons[0]++;
+            return Integer.compare(i1.value, i2.value);
+        }, true));
+        assertIds(dataProvider.getFilteredItems(), "d", "b", "a", "e", "c");
+
+        comparisons[0] = 0;
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        dataProvider.removeFilter("gt2");
+        dataProvider.gotoNextPage();
+        assertEquals(0, comparisons[0]);
+
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        dataProvider.add(new Item("f", 4));
+        dataProvider.removeFilter("gt2");
+        assertIds(dataProvider.getFilteredItems(), "d", "b", "f", "a", "e", "c");
+    }
+
+    @Test
+    void partialSort() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(new Item("i" + i, (i * 7) % 40));
+        }
+        dataProvider.update(items);
+        dataProvider.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        assertIds(display.items, "i0", "i23", "i6");
+        assertEquals(40, display.pageInfo.getTotal());
+
+        dataProvider.gotoLastPage();
+        assertIds(display.items, "i17");
+        assertEquals(40, size(dataProvider.getFilteredItems()));
+    }
+
+    @Test
+    void sortKeys() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            items.add(new Item("i" + i, i % 4));
+        }
+        dataProvider.update(items);
+        int[] extractions = new int[1];
+        SortKeys<Item> sortKeys = SortKeys.<Item, Integer>by(item -> {
+            extractions[0]++;
+            return item.value;
+        }, false).then(item -> item.id.length()).then(item -> item.id);
+        dataProvider.sort(new SortInfo<>("value,length,id", sortKeys, false));
+        assertIds(display.items, "i3", "i7", "i11");
+        assertEquals(40, extractions[0]); // once per item instead of once per comparison
+
+        extractions[0] = 0;
+        dataProvider.replace(new Item("i3", 0));
+        dataProvider.add(new Item("i40", 3));
+        assertEquals(2, extractions[0]);
+        assertIds(display.items, "i7", "i11", "i15");
+
+        dataProvider.sort(new SortInfo<>("value,length,id", sortKeys.reversed(), true));
+        assertIds(display.items, "i36", "i32", "i28");
+    }
+
+    @Test
+    void memoizedIds() {
+        int[] calls = new int[1];
+        DataProvider<Item> dp = new DataProvider<>(item -> {
+            calls[0]++;
+            return item.id;
+        }, PAGE_SIZE);
+        dp.addDisplay(display);
+        dp.update(new Item[]{new Item("a", 1), new Item("b", 2)});
+        assertEquals(2, calls[0]);
+
+        dp.selectAll();
+        for (Item item : dp.getVisibleItems()) {
+            assertEquals(item.id, dp.getId(item));
+            assertTrue(dp.isVisible(item));
+            assertTrue(dp.getSelectionInfo().isSelected(item));
+        }
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void selectAllInverted() {
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        dataProvider.selectAll();
+        SelectionInfo<Item> selectionInfo = dataProvider.getSelectionInfo();
+        assertTrue(selectionInfo.isInverted());
+        assertEquals(4, selectionInfo.getSelectionCount());
+
+        dataProvider.select(dataProvider.getItem("c"), false);
+        assertFalse(selectionInfo.isSelected(dataProvider.getItem("c")));
+        assertFalse(selectionInfo.isSelected(dataProvider.getItem("d")));
+        assertIds(selectionInfo.getSelectedItems(), "a", "b", "e");
+
+        dataProvider.add(new Item("f", 9));
+        assertEquals(4, selectionInfo.getSelectionCount());
+        dataProvider.removeFilter("gt2");
+        assertEquals(5, selectionInfo.getSelectionCount());
+
+        dataProvider.clearAllSelection();
+        assertFalse(selectionInfo.hasSelection());
+        assertFalse(selectionInfo.isInverted());
+    }
+
+    @Test
+    void selectionChanges() {
+        boolean[] allChanged = new boolean[1];
+        List<String> changed = new ArrayList<>();
+        dataProvider.addDisplay(new RecordingDisplay() {
+            @Override
+            public void updateSelection(SelectionInfo<Item> selectionInfo) {
+                allChanged[0] = selectionInfo.isAllChanged();
+                changed.clear();
+                for (Item item : selectionInfo.getChangedItems()) {
+                    changed.add(item.id);
+                }
+            }
+        });
+        dataProvider.select(dataProvider.getItem("b"), true);
+        assertFalse(allChanged[0]);
+        assertEquals(asList("b"), changed);
+
+        dataProvider.batch(dp -> {
+            dp.select(dp.getItem("d"), true);
+            dp.select(dp.getItem("e"), true);
+            dp.select(dp.getItem("d"), false);
+        });
+        assertEquals(asList("e"), changed);
+
+        dataProvider.addFilter("gt4", item -> item.value > 4);
+        assertTrue(allChanged[0]);
+        assertEquals(2, dataProvider.getSelectionInfo().getSelectionCount());
+        assertEquals(1, dataProvider.getSelectionInfo().getFilteredSelectionCount());
+    }
+
+    @Test
+    void displayChanges() {
+        List<String> changes = new ArrayList<>();
+        DataProvider<Item> dp = new DataProvider<>(item -> item.id, 10);
+        dp.addDisplay(new RecordingDisplay() {
+            @Override
+            public void updateItems(DisplayChanges<Item> displayChanges) {
+                for (int i = 0; i < displayChanges.size(); i++) {
+                    changes.add(displayChanges.kind(i) + " " + displayChanges.index(i) + ":"
+                            + displayChanges.toIndex(i) + " " + displayChanges.item(i).id);
+                }
+            }
+        });
+        dp.update(new Item[]{
+                new Item("a", 5), new Item("b", 3), new Item("c", 8), new Item("d", 1), new Item("e", 6)
+        });
+        assertTrue(changes.isEmpty());
+        dp.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        changes.clear();
+
+        dp.add(new Item("f", 2));
+        assertEquals(asList("INSERT 1:1 f"), changes);
+
+        changes.clear();
+        dp.apply(new Changes<Item>()
+                .remove(new Item("b", 3))
+                .replace(new Item("c", 0)));
+        assertEquals(asList("REMOVE 2:2 b", "MOVE 4:0 c", "UPDATE 0:0 c"), changes);
+        assertIds(dp.getVisibleItems(), "c", "d", "f", "a", "e");
+
+        changes.clear();
+        dp.batch(p -> {
+            p.remove(new Item("d", 1));
+            p.add(new Item("g", 1)); // reuses the ordinal of "d"
+        });
+        assertEquals(asList("REMOVE 1:1 d", "INSERT 1:1 g"), changes);
+        assertIds(dp.getVisibleItems(), "c", "g", "f", "a", "e");
+    }
+
+    @Test
+    void batch() {
+        int updates = display.updates;
+        dataProvider.batch(dp -> {
+            dp.addFilter("gt2", item -> item.value > 2);
+            dp.sort(new SortInfo<>("value", comparingInt((Item item) -> item.value).reversed(), false));
+            dp.gotoPage(1);
+            assertTrue(dp.isUpdating());
+        });
+        assertEquals(updates + 1, display.updates);
+        assertEquals(1, display.pageInfo.getPage());
+        assertIds(display.items, "b");
+    }
+
+    @Test
+    void nestedBatch() {
+        int updates = display.updates;
+        dataProvider.beginUpdate();
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        dataProvider.beginUpdate();
+        dataProvider.remove(new Item("c", 8));
+        dataProvider.endUpdate();
+        assertEquals(updates, display.updates);
+        dataProvider.endUpdate();
+        assertEquals(updates + 1, display.updates);
+        assertIds(display.items, "a", "b", "e");
+        assertFalse(dataProvider.isUpdating());
+    }
+
+    @Test
+    void capacity() {
+        dataProvider.sort(new SortInfo<>("value", comparingInt(item -> item.value), true));
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        dataProvider.addAggregate("value", item -> item.value);
+        dataProvider.setCapacity(4);
+        assertEquals(4, dataProvider.getAllItemsCount());
+        assertIds(dataProvider.getFilteredItems(), "b", "e", "c");
+
+        dataProvider.add(new Item("f", 4));
+        dataProvider.add(new Item("g", 2));
+        dataProvider.replace(new Item("d", 9)); // keeps its insertion order
+        assertIds(dataProvider.getAllItems(), "d", "e", "f", "g");
+        assertIds(dataProvider.getFilteredItems(), "f", "e", "d");
+        assertEquals(19, display.aggregates.get("value").getSum(), 0);
+
+        for (int i = 0; i < 100; i++) {
+            dataProvider.add(new Item("x" + i, i));
+        }
+        assertIds(dataProvider.getAllItems(), "x96", "x97", "x98", "x99");
+        assertEquals(4, dataProvider.getAllItemsCount());
+    }
+
+    @Test
+    void capacityNewestFirst() {
+        dataProvider.sort(new SortInfo<>("value", (i1, i2) -> Integer.compare(i2.value, i1.value), false));
+        dataProvider.setCapacity(5);
+        for (int i = 10; i < 200; i++) {
+            dataProvider.add(new Item("x" + i, i)); // inserted first, the oldest item is evicted from the end
+        }
+        assertIds(dataProvider.getFilteredItems(), "x199", "x198", "x197", "x196", "x195");
+        assertIds(display.items, "x199", "x198", "x197");
+    }
+
+    @Test
+    void throttle() {
+        List<Runnable> tasks = new ArrayList<>();
+        dataProvider.setThrottle(100, (task, delay) -> tasks.add(task));
+        int updates = display.updates;
+        dataProvider.add(new Item("f", 2));
+        dataProvider.remove(new Item("a", 5));
+        dataProvider.add(new Item("g", 7));
+        assertEquals(updates, display.updates);
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(updates + 1, display.updates);
+        assertIds(display.items, "b", "c", "d");
+        assertEquals(6, display.pageInfo.getTotal());
+
+        // filters are shown right away together with the pending items
+        dataProvider.add(new Item("h", 4));
+        dataProvider.addFilter("even", item -> item.value % 2 == 0);
+        assertEquals(updates + 2, display.updates);
+        assertIds(display.items, "c", "e", "f");
+        tasks.remove(0).run();
+        assertEquals(updates + 2, display.updates);
+    }
+
+    @Test
+    void views() {
+        DataProvider<Item> even = dataProvider.createView();
+        RecordingDisplay evenDisplay = new RecordingDisplay();
+        even.addDisplay(evenDisplay);
+        even.addFilter("even", item -> item.value % 2 == 0);
+        even.sort(new SortInfo<>("value", (i1, i2) -> Integer.compare(i2.value, i1.value), false));
+        dataProvider.addFilter("gt2", item -> item.value > 2);
+        assertIds(even.getFilteredItems(), "c", "e");
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "c", "e");
+
+        // modifications of the parent and the view update both
+        dataProvider.add(new Item("f", 4));
+        even.remove(new Item("c", 8));
+        even.replace(new Item("a", 10));
+        assertIds(evenDisplay.items, "a", "e", "f");
+        assertIds(dataProvider.getFilteredItems(), "a", "b", "e", "f");
+        assertEquals(5, even.getAllItemsCount());
+
+        // the view keeps its filters and sort order if the items are replaced
+        dataProvider.update(new Item[]{new Item("x", 2), new Item("y", 3), new Item("z", 6)});
+        assertIds(even.getFilteredItems(), "z", "x");
+        assertFalse(dataProvider.hasFilters());
+
+        dataProvider.removeView(even);
+        dataProvider.add(new Item("w", 8));
+        assertIds(evenDisplay.items, "z", "x");
+    }
+
+    private int size(Iterable<Item> items) {
+        int size = 0;
+        for (Item ignored : items) {
+            size++;
+        }
+        return size;
+    }
+
+    private void assertIds(Iterable<Item> items, String... expected) {
+        List<String> actual = new ArrayList<>();
+        for (Item item : items) {
+            actual.add(item.id);
+        }
+        assertEquals(asList(expected), actual);
+    }
+
+    private static class Item {
+
+        private final String id;
+        private final int value;
+
+        private Item(String id, int value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + value;
+        }
+    }
+
+    private static class RecordingDisplay implements Display<Item> {
+
+        private Iterable<Item> items;
+        private PageInfo pageInfo;
+        private int updates;
+        private final Map<String, Map<String, Integer>> facetCounts = new HashMap<>();
+        private final Map<String, Aggregate> aggregates = new HashMap<>();
+
+        @Override
+        public void showItems(Iterable<Item> items, PageInfo pageInfo) {
+            this.items = items;
+            this.pageInfo = pageInfo;
+            updates++;
+        }
+
+        @Override
+        public void updateSelection(SelectionInfo<Item> selectionInfo) {
+        }
+
+        @Override
+        public void updateSortInfo(SortInfo<Item> sortInfo) {
+        }
+
+        @Override
+        public void updateFacetCounts(String facet, Map<String, Integer> counts) {
+            facetCounts.put(facet, new LinkedHashMap<>(counts));
+        }
+
+        @Override
+        public void updateAggregate(Aggregate aggregate) {
+            aggregates.put(aggregate.getId(), aggregate);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldsTest {
+
+    private static final Fields<Entry> FIELDS = new Fields<Entry>()
+            .add("name", entry -> entry.name)
+            .add("size", entry -> entry.size);
+
+    @Test
+    void predicate() {
+        Predicate<Entry> predicate = FIELDS.predicate(Filter.parse("name=sw=B;size=gt=9"));
+        assertTrue(predicate.test(new Entry("bar", 10)));
+        assertFalse(predicate.test(new Entry("bar", 9))); // numeric, not "10" < "9"
+        assertFalse(predicate.test(new Entry("foo", 10)));
+        assertFalse(predicate.test(new Entry(null, 10)));
+
+        Predicate<Entry> not = FIELDS.predicate(Filter.parse("!(name==foo),size=le=1"));
+        assertTrue(not.test(new Entry("bar", 10)));
+        assertTrue(not.test(new Entry("foo", 1)));
+        assertFalse(not.test(new Entry("foo", 2)));
+    }
+
+    @Test
+    void unknownField() {
+        assertThrows(IllegalArgumentException.class, () -> FIELDS.predicate(Filter.parse("color==red")));
+    }
+
+    @Test
+    void nonNumericValue() {
+        // numbers are not compared as strings: "10" < "9", but 10 is neither less than nor equal to "9x"
+        assertFalse(FIELDS.predicate(Filter.parse("size=lt=9x")).test(new Entry("a", 10)));
+        assertFalse(FIELDS.predicate(Filter.parse("size==10x")).test(new Entry("a", 10)));
+        assertTrue(FIELDS.predicate(Filter.parse("size!=10x")).test(new Entry("a", 10)));
+        assertTrue(FIELDS.predicate(Filter.parse("size=sw=1")).test(new Entry("a", 10)));
+
+        Fields<Entry> fields = new Fields<Entry>().addInt("size", entry -> entry.size);
+        assertThrows(IllegalArgumentException.class, () -> fields.predicate(Filter.parse("size=lt=9x")));
+        assertTrue(fields.predicate(Filter.parse("size=co=0")).test(new Entry("a", 10)));
+    }
+
+    @Test
+    void comparator() {
+        List<Entry> entries = new ArrayList<>(asList(new Entry("b", 1), new Entry("a", 1), new Entry("c", 2),
+                new Entry(null, 2)));
+        entries.sort(FIELDS.comparator(Sort.by("size", false).then("name")));
+        assertEquals("[c:2, null:2, a:1, b:1]", entries.toString());
+    }
+
+    @Test
+    void numericFields() {
+        Fields<Entry> fields = new Fields<Entry>()
+                .add("name", entry -> entry.name)
+                .addInt("size", entry -> entry.size)
+                .addDouble("ratio", entry -> entry.size / 4.0);
+        Predicate<Entry> range = fields.predicate(Filter.parse("size=ge=2;size=lt=10;ratio!=1"));
+        assertTrue(range.test(new Entry("a", 2)));
+        assertFalse(range.test(new Entry("a", 4)));
+        assertFalse(range.test(new Entry("a", 10)));
+        assertTrue(fields.predicate(Filter.parse("size=co=2")).test(new Entry("a", 12))); // as string
+
+        List<Entry> entries = new ArrayList<>(asList(new Entry("b", 1), new Entry("a", 1), new Entry("c", 2)));
+        entries.sort(fields.comparator(Sort.by("size", false).then("name")));
+        assertEquals("[c:2, a:1, b:1]", entries.toString());
+    }
+
+    @Test
+    void dataProvider() {
+        DataProvider<Entry> dataProvider = new DataProvider<>(entry -> entry.name);
+        dataProvider.update(asList(new Entry("foo", 1), new Entry("bar", 2), new Entry("baz", 3)));
+        dataProvider.addFilter("search", Filter.parse("name=co=A"), FIELDS);
+        dataProvider.sort(Sort.by("size", false), FIELDS);
+        List<String> names = new ArrayList<>();
+        for (Entry entry : dataProvider.getVisibleItems()) {
+            names.add(entry.name);
+        }
+        assertEquals(asList("baz", "bar"), names);
+    }
+
+    private static class Entry {
+
+        final String name;
+        final int size;
+
+        Entry(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + size;
+        }
+    }
+}
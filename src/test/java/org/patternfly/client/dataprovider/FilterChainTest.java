@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterChainTest {
+
+    private static final int ITEMS = 1000;
+
+    private ItemStore<Integer> store;
+    private FilterChain<Integer> filters;
+
+    @BeforeEach
+    void setUp() {
+        store = new ItemStore<>();
+        for (int i = 0; i < ITEMS; i++) {
+            store.add(String.valueOf(i), i);
+        }
+        filters = new FilterChain<>();
+    }
+
+    @Test
+    void statisticsDecay() {
+        filters.add("even", i -> i % 2 == 0, 0);
+        Bits matching = new Bits();
+        int rounds = 3 * FilterChain.MAX_SAMPLES / ITEMS;
+        for (int i = 0; i < rounds; i++) {
+            filters.invalidate();
+            matching.copyFrom(store.live());
+            filters.apply(matching, store);
+        }
+
+        FilterStats stats = filters.stats().get(0);
+        assertTrue(stats.getEvaluations() > FilterChain.MAX_SAMPLES / 2);
+        assertTrue(stats.getEvaluations() <= FilterChain.MAX_SAMPLES);
+        assertEquals(0.5, stats.getPassRate(), 0.01);
+        assertTrue(stats.isMeasured());
+        assertTrue(stats.getCost() >= 0 && !Double.isInfinite(stats.getCost()));
+        assertTrue(stats.getRank() > 0 && !Double.isInfinite(stats.getRank()));
+        assertEquals(ITEMS / 2, matching.cardinality());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.patternfly.client.dataprovider.Filter.Operator.CONTAINS;
+import static org.patternfly.client.dataprovider.Filter.Operator.EQ;
+import static org.patternfly.client.dataprovider.Filter.Operator.GT;
+import static org.patternfly.client.dataprovider.Filter.Operator.LT;
+import static org.patternfly.client.dataprovider.Filter.and;
+import static org.patternfly.client.dataprovider.Filter.condition;
+import static org.patternfly.client.dataprovider.Filter.not;
+import static org.patternfly.client.dataprovider.Filter.or;
+
+class FilterTest {
+
+    @Test
+    void serialize() {
+        Filter filter = and(condition("name", CONTAINS, "foo"),
+                or(condition("size", GT, "10"), condition("size", LT, "2")),
+                not(condition("state", EQ, "it's off")));
+        assertEquals("name=co=foo;(size=gt=10,size=lt=2);!(state=='it\\'s off')", filter.toString());
+        assertEquals(filter, Filter.parse(filter.toString()));
+    }
+
+    @Test
+    void parse() {
+        Filter filter = Filter.parse("a==1,b!=2;(c=ge=3)");
+        assertEquals(or(condition("a", EQ, "1"), and(condition("b", Filter.Operator.NE, "2"),
+                condition("c", Filter.Operator.GE, "3"))), filter);
+        assertEquals(condition("a", EQ, ""), Filter.parse("a==''"));
+    }
+
+    @Test
+    void range() {
+        assertEquals("size=ge=10;size=le=20.5", Filter.range("size", 10, 20.5).toString());
+        assertEquals("size=ge=10", Filter.range("size", 10, Double.POSITIVE_INFINITY).toString());
+        assertEquals("size=le=-1", Filter.range("size", Double.NEGATIVE_INFINITY, -1).toString());
+    }
+
+    @Test
+    void parseErrors() {
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("a=foo=1"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("a==1;"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("(a==1"));
+        assertThrows(IllegalArgumentException.class, () -> Filter.parse("a=='1"));
+    }
+
+    @Test
+    void json() {
+        Filter filter = or(condition("name", CONTAINS, "say \"hi\""), not(condition("size", GT, "10")));
+        assertEquals("{\"or\":[{\"field\":\"name\",\"op\":\"co\",\"value\":\"say \\\"hi\\\"\"}," +
+                "{\"not\":{\"field\":\"size\",\"op\":\"gt\",\"value\":\"10\"}}]}", filter.toJson());
+    }
+
+    @Test
+    void sort() {
+        Sort sort = Sort.by("name").then("size", false);
+        assertEquals("name,-size", sort.toString());
+        assertEquals(sort, Sort.parse("+name,-size"));
+        assertEquals("-name,size", sort.reversed().toString());
+        assertEquals("[{\"field\":\"name\",\"asc\":true},{\"field\":\"size\",\"asc\":false}]", sort.toJson());
+    }
+
+    @Test
+    void sortErrors() {
+        assertThrows(IllegalArgumentException.class, () -> Sort.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Sort.parse("name,"));
+        assertThrows(IllegalArgumentException.class, () -> Sort.parse(",name"));
+        assertThrows(IllegalArgumentException.class, () -> Sort.parse("name,,size"));
+        assertThrows(IllegalArgumentException.class, () -> Sort.parse("-"));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrdinalListTest {
+
+    private static final SortedIndex.OrdinalComparator DESCENDING = (o1, o2) -> Integer.compare(o2, o1);
+
+    private OrdinalList list;
+
+    @BeforeEach
+    void setUp() {
+        list = new OrdinalList();
+    }
+
+    @Test
+    void insertFrontAndEvict() {
+        // newest first with a capacity of 50: each ordinal is inserted at the front, the oldest is removed at the end
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            assertEquals(0, list.insert(ordinal, DESCENDING));
+            if (list.size() > 50) {
+                assertEquals(50, list.remove(ordinal - 50, DESCENDING));
+            }
+        }
+        assertEquals(50, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(999 - i, list.get(i));
+        }
+    }
+
+    @Test
+    void mixed() {
+        for (int ordinal = 0; ordinal < 40; ordinal += 2) {
+            list.insert(ordinal, DESCENDING);
+        }
+        list.remove(38, DESCENDING); // first
+        list.insert(39, DESCENDING); // first again
+        list.insert(21, DESCENDING); // middle
+        list.remove(0, DESCENDING); // last
+        list.add(-1);
+
+        int[] expected = {39, 36, 34, 32, 30, 28, 26, 24, 22, 21, 20, 18, 16, 14, 12, 10, 8, 6, 4, 2, -1};
+        assertEquals(expected.length, list.size());
+        int[] actual = new int[list.size()];
+        System.arraycopy(list.array(), 0, actual, 0, list.size());
+        assertArrayEquals(expected, actual);
+        assertEquals(9, list.indexOf(21, 0, list.size()));
+    }
+}
@@ -18,6 +18,8 @@ package org.patternfly.client.dataprovider;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PageInfoTest {
 
@@ -87,6 +89,34 @@ class PageInfoTest {
         assertEquals(100, pageInfo.getVisible());
     }
 
+    @Test
+    void estimatedTotal() {
+        PageInfo pageInfo = new PageInfo(PAGE_SIZE);
+        pageInfo.setTotal(95, PageInfo.TotalKind.ESTIMATED);
+        pageInfo.setPage(12); // not limited by the estimation
+        pageInfo.setVisible(4);
+        assertEquals(12, pageInfo.getPage());
+        assertEquals(121, pageInfo.getFrom());
+        assertEquals(124, pageInfo.getTo());
+        assertFalse(pageInfo.hasNextPage());
+    }
+
+    @Test
+    void unknownTotal() {
+        PageInfo pageInfo = new PageInfo(PAGE_SIZE);
+        pageInfo.setTotal(PageInfo.UNKNOWN_TOTAL);
+        pageInfo.setVisible(PAGE_SIZE);
+        pageInfo.setNextPage(true);
+        assertFalse(pageInfo.isTotalKnown());
+        assertEquals(2, pageInfo.getPages());
+        assertEquals(10, pageInfo.getTo());
+        assertTrue(pageInfo.hasNextPage());
+
+        pageInfo.setTotal(42);
+        assertEquals(PageInfo.TotalKind.EXACT, pageInfo.getTotalKind());
+        assertEquals(5, pageInfo.getPages());
+    }
+
     private void assertEmpty(PageInfo pageInfo) {
         assertEquals(PAGE_SIZE, pageInfo.getPageSize());
         assertEquals(0, pageInfo.getPage());
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2015-2016 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.patternfly.client.dataprovider;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteDataProviderTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private InMemoryLoader loader;
+    private RemoteDataProvider<String> dataProvider;
+    private RecordingDisplay display;
+
+    @BeforeEach
+    void setUp() {
+        loader = new InMemoryLoader("delta", "alpha", "echo", "bravo", "foxtrot", "charlie", "golf");
+        dataProvider = new RemoteDataProvider<>(item -> item, PAGE_SIZE, loader);
+        display = new RecordingDisplay();
+        dataProvider.addDisplay(display);
+        dataProvider.reload();
+    }
+
+    @Test
+    void firstPage() {
+        assertEquals(asList("delta", "alpha", "echo"), display.items);
+        assertEquals(7, display.pageInfo.getTotal());
+        assertEquals(3, display.pageInfo.getPages());
+        assertEquals(new PageQuery(0, PAGE_SIZE, null, true, emptyMap()), loader.queries.get(0));
+    }
+
+    @Test
+    void paging() {
+        dataProvider.gotoLastPage();
+        assertEquals(asList("golf"), display.items);
+        assertEquals(2, display.pageInfo.getPage());
+
+        dataProvider.gotoNextPage();
+        assertEquals(2, loader.queries.size());
+    }
+
+    @Test
+    void sortAndFilter() {
+        dataProvider.batch(dp -> {
+            dp.addFilter("contains", "o", item -> true);
+            dp.sort(new SortInfo<>("name", null, false));
+        });
+        assertEquals(2, loader.queries.size());
+        assertEquals(asList("golf", "foxtrot", "echo"), display.items);
+        assertEquals(4, display.pageInfo.getTotal());
+        assertTrue(dataProvider.hasFilters());
+    }
+
+    @Test
+    void declarativeFilterAndSort() {
+        Fields<String> fields = new Fields<String>().add("name", item -> item);
+        dataProvider.addFilter("name", Filter.parse("name=co=o"), fields);
+        assertEquals("name=co=o", loader.last().getFilters().get("name"));
+
+        dataProvider.sort(Sort.parse("-name"), fields);
+        assertEquals("-name", loader.last().getSortId());
+    }
+
+    @Test
+    void itemProvider() {
+        ItemProvider<String> provider = dataProvider;
+        provider.addRangeFilter("size", "size", 1, 10);
+        assertEquals("size=ge=1;size=le=10", loader.last().getFilters().get("size"));
+        assertNull(provider.getAggregate("size"));
+
+        provider.removeFilter("size");
+        assertEquals(asList("delta", "alpha", "echo"), display.items);
+    }
+
+    @Test
+    void outdatedResponse() {
+        loader.deferred = true;
+        dataProvider.gotoNextPage();
+        dataProvider.addFilter("contains", "a", item -> true);
+        loader.complete(1); // the response for the filter
+        loader.complete(0); // the response for the next page is outdated
+        assertEquals(asList("charlie"), display.items);
+    }
+
+    @Test
+    void supersededQueries() {
+        loader.deferred = true;
+        dataProvider.addFilter("contains", "a", item -> true);
+        dataProvider.addFilter("contains", "al", item -> true);
+        dataProvider.addFilter("contains", "o", item -> true);
+        dataProvider.addFilter("contains", "o", item -> true); // identical to the query in flight
+        assertEquals(4, loader.queries.size());
+        assertEquals(asList(loader.queries.get(1), loader.queries.get(2)), loader.cancelled);
+
+        loader.complete(2); // the response for "o"
+        loader.complete(0); // superseded
+        loader.complete(1); // superseded
+        assertEquals(asList("echo", "bravo", "foxtrot"), display.items);
+        assertEquals(2, display.shown);
+    }
+
+    @Test
+    void cursorPaging() {
+        RemoteDataProvider<String> keyset = new RemoteDataProvider<>(item -> item, PAGE_SIZE, loader, item -> item);
+        RecordingDisplay display = new RecordingDisplay();
+        keyset.addDisplay(display);
+        keyset.sort(new SortInfo<>("name", null, true));
+        assertEquals(asList("alpha", "bravo", "charlie"), display.items);
+        assertFalse(display.pageInfo.isTotalKnown());
+        assertTrue(display.pageInfo.hasNextPage());
+
+        keyset.gotoNextPage();
+        assertEquals(new PageQuery(1, PAGE_SIZE, "name", true, emptyMap(), true, "charlie", null), loader.last());
+        assertEquals(asList("delta", "echo", "foxtrot"), display.items);
+
+        loader.items.add("able"); // doesn't shift the pages
+        keyset.gotoNextPage();
+        assertEquals(asList("golf"), display.items);
+        assertEquals(7, display.pageInfo.getFrom());
+        assertEquals(7, display.pageInfo.getTo());
+        assertFalse(display.pageInfo.hasNextPage());
+
+        keyset.gotoPreviousPage();
+        assertEquals(new PageQuery(1, PAGE_SIZE, "name", true, emptyMap(), true, null, "golf"), loader.last());
+        assertEquals(asList("delta", "echo", "foxtrot"), display.items);
+
+        loader.items.remove("golf");
+        keyset.gotoNextPage(); // empty: stays on the current page
+        assertEquals(asList("delta", "echo", "foxtrot"), display.items);
+        assertEquals(1, display.pageInfo.getPage());
+        assertFalse(display.pageInfo.hasNextPage());
+
+        keyset.gotoPreviousPage(); // loads the first page
+        assertEquals(asList("able", "alpha", "bravo"), display.items);
+        assertFalse(display.pageInfo.hasPreviousPage());
+    }
+
+    @Test
+    void deferredTotal() {
+        loader.estimate = true;
+        dataProvider.reload();
+        assertEquals(asList("delta", "alpha", "echo"), display.items);
+        assertEquals(PageInfo.TotalKind.ESTIMATED, display.pageInfo.getTotalKind());
+        assertEquals(10, display.pageInfo.getTotal());
+        assertEquals(2, display.shown);
+
+        loader.count();
+        assertEquals(PageInfo.TotalKind.EXACT, display.pageInfo.getTotalKind());
+        assertEquals(7, display.pageInfo.getTotal());
+        assertEquals(2, display.shown); // the items are not shown again
+        assertEquals(1, display.pageInfoUpdates);
+    }
+
+    @Test
+    void deferredTotalBeyondCursor() {
+        loader.estimate = true;
+        RemoteDataProvider<String> keyset = new RemoteDataProvider<>(item -> item, PAGE_SIZE, loader, item -> item);
+        RecordingDisplay display = new RecordingDisplay();
+        keyset.addDisplay(display);
+        keyset.sort(new SortInfo<>("name", null, true));
+        keyset.gotoNextPage();
+        keyset.gotoNextPage();
+        assertEquals(asList("golf"), display.items);
+
+        loader.items.removeAll(asList("delta", "echo", "foxtrot", "golf"));
+        loader.count(); // the current page is beyond the exact total: restart at the first page
+        assertEquals(new PageQuery(0, PAGE_SIZE, "name", true, emptyMap(), true, null, null), loader.last());
+        assertEquals(asList("alpha", "bravo", "charlie"), display.items);
+    }
+
+    @Test
+    void selectAll() {
+        dataProvider.select("alpha", true);
+        assertEquals(1, dataProvider.getSelectionInfo().getSelectionCount());
+
+        dataProvider.selectAll();
+        dataProvider.select("echo", false);
+        dataProvider.gotoNextPage();
+        SelectionInfo<String> selectionInfo = dataProvider.getSelectionInfo();
+        assertEquals(6, selectionInfo.getSelectionCount());
+        assertTrue(selectionInfo.isSelected("bravo"));
+        assertFalse(selectionInfo.isSelected("echo"));
+
+        dataProvider.clearAllSelection();
+        assertFalse(selectionInfo.hasSelection());
+    }
+
+    /** Stand-in for a server which filters using the "contains" filter value and sorts by name. */
+    private static class InMemoryLoader implements DataLoader<String> {
+
+        private final List<String> items;
+        private final List<PageQuery> queries;
+        private final List<Runnable> responses;
+        private final List<PageQuery> cancelled;
+        private final List<Runnable> counts;
+        private boolean deferred;
+        private boolean estimate; // report an estimated total and count the items later
+
+        InMemoryLoader(String... items) {
+            this.items = new ArrayList<>(asList(items));
+            this.queries = new ArrayList<>();
+            this.responses = new ArrayList<>();
+            this.cancelled = new ArrayList<>();
+            this.counts = new ArrayList<>();
+        }
+
+        @Override
+        public void load(PageQuery query, Callback<String> callback) {
+            queries.add(query);
+            Runnable response = () -> {
+                List<String> result = new ArrayList<>();
+                for (String item : items) {
+                    if (matches(item, query.getFilters())) {
+                        result.add(item);
+                    }
+                }
+                if (query.getSortId() != null) {
+                    result.sort(query.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder());
+                }
+                int from;
+                int to;
+                if (query.isCursor()) {
+                    if (query.getBefore() != null) {
+                        to = result.indexOf(query.getBefore());
+                        from = Math.max(0, to - query.getPageSize());
+                    } else {
+                        from = query.getAfter() != null ? result.indexOf(query.getAfter()) + 1 : 0;
+                        to = Math.min(from + query.getPageSize(), result.size());
+                    }
+                } else {
+                    from = Math.min(query.getOffset(), result.size());
+                    to = Math.min(from + query.getPageSize(), result.size());
+                }
+                int total = query.isCursor() ? PageInfo.UNKNOWN_TOTAL : result.size();
+                if (estimate) {
+                    callback.onSuccess(new ArrayList<>(result.subList(from, to)), 10, PageInfo.TotalKind.ESTIMATED);
+                    counts.add(() -> callback.onTotal(count(query))); // counts the items at that time
+                } else {
+                    callback.onSuccess(new ArrayList<>(result.subList(from, to)), total);
+                }
+            };
+            if (deferred) {
+                responses.add(response);
+            } else {
+                response.run();
+            }
+        }
+
+        @Override
+        public void cancel(PageQuery query) {
+            cancelled.add(query);
+        }
+
+        void count() {
+            counts.get(counts.size() - 1).run();
+        }
+
+        PageQuery last() {
+            return queries.get(queries.size() - 1);
+        }
+
+        void complete(int index) {
+            responses.get(index).run();
+        }
+
+        private int count(PageQuery query) {
+            int count = 0;
+            for (String item : items) {
+                if (matches(item, query.getFilters())) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean matches(String item, Map<String, String> filters) {
+            String contains = filters.get("contains");
+            return contains == null || item.contains(contains);
+        }
+    }
+
+    private static class RecordingDisplay implements Display<String> {
+
+        private List<String> items;
+        private PageInfo pageInfo;
+        private int shown;
+        private int pageInfoUpdates;
+
+        @Override
+        public void showItems(Iterable<String> items, PageInfo pageInfo) {
+            shown++;
+            this.items = new ArrayList<>();
+            for (String item : items) {
+                this.items.add(item);
+            }
+            this.pageInfo = pageInfo;
+        }
+
+        @Override
+        public void updatePageInfo(PageInfo pageInfo) {
+            pageInfoUpdates++;
+            this.pageInfo = pageInfo;
+        }
+
+        @Override
+        public void updateSelection(SelectionInfo<String> selectionInfo) {
+        }
+
+        @Override
+        public void updateSortInfo(SortInfo<String> sortInfo) {
+        }
+    }
+}